@@ -0,0 +1,105 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingCursor;
+import ru.practicum.shareit.booking.service.BookingRequestStates;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Выборка бронирований по состоянию (бывший getBookingByState) на H2 из профиля test:
+// первая страница, глубокая страница по смещению и та же страница по курсору
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int history;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    private BookingRequestStates state;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private User booker;
+    private User owner;
+    private int deepOffset;
+    private BookingCursor deepCursor;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        owner = userRepository.save(User.builder().name("owner").email("owner@bench.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@bench.ru").build());
+        Item item = context.getBean(ItemRepository.class).save(Item.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        context.getBean(BookingRepository.class)
+                .saveAll(Fixtures.bookings(item, booker, history, LocalDateTime.now()));
+
+        // Глубокая страница: середина истории в выбранном состоянии
+        deepOffset = history / 2;
+        List<Booking> anchor = bookingService.getUserBooking(booker, state, Math.max(deepOffset - 1, 0), 1);
+        deepCursor = anchor.isEmpty()
+                ? new BookingCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE)
+                : BookingCursor.of(anchor.get(0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Booking> bookerFirstPage() {
+        return bookingService.getUserBooking(booker, state, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Booking> bookerDeepPageByOffset() {
+        return bookingService.getUserBooking(booker, state, deepOffset, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Booking> bookerDeepPageByCursor() {
+        return bookingService.getUserBooking(booker, state, deepCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Booking> ownerFirstPage() {
+        return bookingService.getUserItemsBookings(owner, state, 0, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.benchmarks;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Детерминированные наборы сущностей для бенчмарков
+final class Fixtures {
+    private static final BookingStatus[] STATUSES = {
+            BookingStatus.APPROVED, BookingStatus.WAITING, BookingStatus.REJECTED
+    };
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        return User.builder().id(id).name("user" + id).email("user" + id + "@bench.ru").build();
+    }
+
+    static Item item(long id, User owner) {
+        return Item.builder()
+                .id(id)
+                .name("Дрель " + id)
+                .description("Аккумуляторная дрель с набором бит " + id)
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+
+    // Бронирования идут от будущих к прошлым, как их отдает репозиторий (start desc),
+    // часть из них пересекает текущий момент
+    static List<Booking> bookings(Item item, User booker, int count, LocalDateTime now) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = now.plusHours(2L * (count / 2 - i));
+            bookings.add(Booking.builder()
+                    .start(start)
+                    .end(start.plusHours(3))
+                    .item(item)
+                    .booker(booker)
+                    .status(STATUSES[i % STATUSES.length])
+                    .build());
+        }
+        return bookings;
+    }
+
+    static List<Comment> comments(Item item, User author, int count, LocalDateTime now) {
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            comments.add(Comment.builder()
+                    .id(i + 1)
+                    .text("Отличная вещь, пользовался " + i + " раз")
+                    .item(item)
+                    .author(author)
+                    .created(now.minusDays(i))
+                    .build());
+        }
+        return comments;
+    }
+
+    static List<Booking> withIds(List<Booking> bookings) {
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(i + 1);
+        }
+        return bookings;
+    }
+}
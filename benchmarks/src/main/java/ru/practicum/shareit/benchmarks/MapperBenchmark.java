@@ -0,0 +1,62 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ItemMapper.toDto с бронированиями и комментариями, BookingMapper.toDto/toShortDto с форматированием дат
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"0", "10", "100"})
+    private int comments;
+
+    @Param({"0", "10", "100"})
+    private int bookings;
+
+    private Item item;
+    private List<Comment> itemComments;
+    private List<Booking> itemBookings;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = Fixtures.user(1);
+        User booker = Fixtures.user(2);
+        item = Fixtures.item(1, owner);
+        itemComments = Fixtures.comments(item, booker, comments, now);
+        itemBookings = Fixtures.withIds(Fixtures.bookings(item, booker, bookings, now));
+        booking = Fixtures.withIds(Fixtures.bookings(item, booker, 1, now)).get(0);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toDto(item, itemComments, itemBookings);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toDto(booking);
+    }
+
+    @Benchmark
+    public BookingShortDto bookingToShortDto() {
+        return BookingMapper.toShortDto(booking);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+// Длинный тайм-аут асинхронной обработки только для потоковых выгрузок: остальные асинхронные запросы
+// остаются с тайм-аутом spring.mvc.async.request-timeout
+@Component
+public class ExportTimeout {
+    private final Duration timeout;
+
+    public ExportTimeout(@Value("${shareit.export.timeout:30m}") Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    // Вызывается в обработчике до возврата StreamingResponseBody: тайм-аут ставится перед запуском асинхронной обработки
+    public void extend(HttpServletRequest request) {
+        long millis = timeout.toMillis();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportTimeout.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        if (webRequest instanceof AsyncWebRequest) {
+                            ((AsyncWebRequest) webRequest).setTimeout(millis);
+                        }
+                    }
+                });
+    }
+}
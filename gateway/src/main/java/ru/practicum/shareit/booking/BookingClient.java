@@ -1,16 +1,19 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingRequestStates;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CachedRoute;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,53 +21,70 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerTransportFactory transports, ResponseCache responseCache) {
+        super(transports.create(API_PREFIX), responseCache);
     }
 
-    public ResponseEntity<Object> createBooking(long userId, BookingShortDto requestDto) {
-        return post("", userId, requestDto);
+    public Mono<ResponseEntity<Object>> createBooking(long userId, BookingShortDto requestDto) {
+        // Ближайшие бронирования видны владельцу в GET /items/{id}
+        return invalidating(post("", userId, requestDto), CachedRoute.ITEM);
     }
 
-    public ResponseEntity<Object> approveBooking(long userId,
-                                                 long bookingId,
-                                                 Boolean approved) {
+    public Mono<ResponseEntity<Object>> approveBooking(long userId,
+                                                       long bookingId,
+                                                       Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved.toString()
         );
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        return invalidating(patch("/" + bookingId + "?approved={approved}", userId, parameters, null),
+                CachedRoute.ITEM);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getUserBookings(long userId,
-                                                  BookingRequestStates state,
-                                                  Integer from,
-                                                  Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getUserBookings(long userId,
+                                                        BookingRequestStates state,
+                                                        Integer from,
+                                                        Integer size,
+                                                        String cursor) {
+        Map<String, Object> parameters = pageParameters(state, from, size, cursor);
+        return get("?state={state}&size={size}" + pageQuery(from, cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingsUserItems(long userId,
-                                                       BookingRequestStates state,
-                                                       Integer from,
-                                                       Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getBookingsUserItems(long userId,
+                                                             BookingRequestStates state,
+                                                             Integer from,
+                                                             Integer size,
+                                                             String cursor) {
+        Map<String, Object> parameters = pageParameters(state, from, size, cursor);
+        return get("/owner?state={state}&size={size}" + pageQuery(from, cursor), userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsUserItems(long userId) {
+        return stream("/owner/export", userId, null);
+    }
+
+    private static Map<String, Object> pageParameters(BookingRequestStates state,
+                                                      Integer from,
+                                                      Integer size,
+                                                      String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
-                "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        if (from != null) {
+            parameters.put("from", from);
+        }
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
+    }
+
+    // Смещение и курсор передаются серверу только если заданы: сервер отклоняет их сочетание
+    private static String pageQuery(Integer from, String cursor) {
+        return (from == null ? "" : "&from={from}") + (cursor == null ? "" : "&cursor={cursor}");
     }
 }
@@ -4,12 +4,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingRequestStates;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.error.ErrorResponse;
+import ru.practicum.shareit.client.StreamPassthrough;
+import ru.practicum.shareit.util.ExportTimeout;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
@@ -24,43 +30,56 @@ import java.util.Map;
 @Validated
 public class BookingController {
 	private final BookingClient bookingClient;
+	private final ExportTimeout exportTimeout;
 
 	@PostMapping
-	public ResponseEntity<Object> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+	public Mono<ResponseEntity<Object>> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
 										   @RequestBody @Valid BookingShortDto requestDto) {
 		log.info("Creating booking {}, userId={}", requestDto, userId);
 		return bookingClient.createBooking(userId, requestDto);
 	}
 
 	@PatchMapping("/{bookingId}")
-	public ResponseEntity<Object> approveBooking(@PathVariable final Long bookingId,
+	public Mono<ResponseEntity<Object>> approveBooking(@PathVariable final Long bookingId,
 									 @RequestHeader("X-Sharer-User-Id") Long userId,
 									 @RequestParam Boolean approved) {
 		return bookingClient.approveBooking(userId, bookingId, approved);
 	}
 
 	@GetMapping("/{bookingId}")
-	public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+	public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
 											 @PathVariable Long bookingId) {
 		log.info("Get booking {}, userId={}", bookingId, userId);
 		return bookingClient.getBooking(userId, bookingId);
 	}
 
 	@GetMapping
-	public ResponseEntity<Object> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+	public Mono<ResponseEntity<Object>> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
 												  @RequestParam(defaultValue = "ALL") BookingRequestStates state,
-												  @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-												  @Positive @RequestParam(defaultValue = "10") Integer size) {
-		log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
-		return bookingClient.getUserBookings(userId, state, from, size);
+												  @PositiveOrZero @RequestParam(required = false) Integer from,
+												  @Positive @RequestParam(defaultValue = "10") Integer size,
+												  @RequestParam(required = false) String cursor) {
+		log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", state, userId, from, size, cursor);
+		return bookingClient.getUserBookings(userId, state, from, size, cursor);
 	}
 
 	@GetMapping("/owner")
-	public ResponseEntity<Object> getBookingsUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+	public Mono<ResponseEntity<Object>> getBookingsUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
 												 @RequestParam(defaultValue = "ALL") BookingRequestStates state,
-												 @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-												 @Positive @RequestParam(defaultValue = "10") Integer size) {
-		return bookingClient.getBookingsUserItems(userId, state, from, size);
+												 @PositiveOrZero @RequestParam(required = false) Integer from,
+												 @Positive @RequestParam(defaultValue = "10") Integer size,
+												 @RequestParam(required = false) String cursor) {
+		return bookingClient.getBookingsUserItems(userId, state, from, size, cursor);
+	}
+
+	// Поток строк сервера отдается клиенту по мере чтения, без буферизации фильтром ETag
+	@GetMapping(value = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportBookingsUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+																		 HttpServletRequest request) {
+		log.info("Export bookings of items, userId={}", userId);
+		ShallowEtagHeaderFilter.disableContentCaching(request);
+		exportTimeout.extend(request);
+		return StreamPassthrough.toResponse(request, bookingClient.exportBookingsUserItems(userId));
 	}
 
 	@ExceptionHandler(IllegalArgumentException.class)
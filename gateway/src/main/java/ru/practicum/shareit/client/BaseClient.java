@@ -2,99 +2,168 @@ package ru.practicum.shareit.client;
 
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    // Заголовки ответа сервера, которые шлюз передает клиенту без изменений
+    private static final List<String> PASSTHROUGH_HEADERS = List.of("X-Next-Cursor", HttpHeaders.ETAG);
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    protected final ServerTransport transport;
+    protected final ResponseCache responseCache;
+    // Выполняющиеся GET-запросы: одинаковые одновременные запросы ждут один ответ сервера
+    private final ConcurrentMap<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+
+    public BaseClient(ServerTransport transport, ResponseCache responseCache) {
+        this.transport = transport;
+        this.responseCache = responseCache;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return singleFlight(requestKey(userId, path, parameters),
+                () -> makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null));
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    // GET с ответом из кэша шлюза, если он там есть
+    protected Mono<ResponseEntity<Object>> cachedGet(CachedRoute route, String path, Long userId,
+                                                     @Nullable Map<String, Object> parameters) {
+        String key = requestKey(userId, path, parameters);
+        return Mono.defer(() -> {
+            ResponseCache.CachedResponse cached = responseCache.get(route, key);
+            if (cached != null && responseCache.isFresh(cached)) {
+                return Mono.just(cached.getResponse());
+            }
+            // Устаревший ответ перепроверяется: при 304 сервер не передает тело заново
+            String eTag = cached != null ? cached.getETag() : null;
+            long generation = responseCache.generation(route);
+            // Запрос, начатый до сброса кэша, не должен отдавать свой ответ запросам после сброса
+            return singleFlight(key + " #" + generation + " " + eTag,
+                    () -> makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, eTag))
+                    .map(response -> response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null
+                            ? cached.getResponse()
+                            : response)
+                    .doOnNext(response -> responseCache.put(route, key, generation, response));
+        });
+    }
+
+    // Запрос на изменение: по завершении сбрасывает кэш маршрутов, ответы которых он мог изменить
+    protected Mono<ResponseEntity<Object>> invalidating(Mono<ResponseEntity<Object>> request, CachedRoute... routes) {
+        return request.doOnTerminate(() -> responseCache.invalidate(routes));
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    // Потоковый GET: ответ не кэшируется и не объединяется с другими запросами
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> stream(String path, @Nullable Long userId,
+                                                            @Nullable Map<String, Object> parameters) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+        return transport.stream(path, parameters, new HttpEntity<>(headers));
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode())
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(e.getResponseBodyAsByteArray());
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, userId, parameters, body, null);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method,
+                                                                String path,
+                                                                Long userId,
+                                                                @Nullable Map<String, Object> parameters,
+                                                                @Nullable T body,
+                                                                @Nullable String eTag) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+        return transport.exchange(method, path, parameters, requestEntity)
+                .map(BaseClient::prepareGatewayResponse);
+    }
+
+    // Первый запрос с данным ключом уходит на сервер, остальные получают его ответ.
+    // Запись удаляется по завершении запроса, следующий запрос снова пойдет на сервер
+    private Mono<ResponseEntity<Object>> singleFlight(String key, Supplier<Mono<ResponseEntity<Object>>> request) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> {
+            AtomicReference<Mono<ResponseEntity<Object>>> self = new AtomicReference<>();
+            Mono<ResponseEntity<Object>> shared = request.get()
+                    .doFinally(signal -> inFlight.remove(k, self.get()))
+                    .cache();
+            self.set(shared);
+            return shared;
+        }));
+    }
+
+    // Ответ сервера зависит от пути, параметров и X-Sharer-User-Id
+    private static String requestKey(@Nullable Long userId, String path, @Nullable Map<String, Object> parameters) {
+        return userId + " " + path + (parameters != null ? " " + new TreeMap<>(parameters) : "");
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -109,8 +178,18 @@ public class BaseClient {
 
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        for (String header : PASSTHROUGH_HEADERS) {
+            List<String> values = response.getHeaders().get(header);
+            if (values != null) {
+                responseBuilder.header(header, values.toArray(new String[0]));
+            }
+        }
 
         if (response.hasBody()) {
+            if (response.getBody() instanceof byte[]) {
+                MediaType contentType = response.getHeaders().getContentType();
+                responseBuilder.contentType(contentType != null ? contentType : MediaType.APPLICATION_JSON);
+            }
             return responseBuilder.body(response.getBody());
         }
 
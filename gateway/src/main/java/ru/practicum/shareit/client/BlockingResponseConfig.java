@@ -0,0 +1,88 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.HttpEntityMethodProcessor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// shareit-server.reactive=false: RestTemplateTransport выполняет запрос в потоке подписчика, поэтому Mono<ResponseEntity>
+// из контроллеров разрешается прямо в потоке сервлета и пишется как обычный ResponseEntity, без асинхронной
+// обработки MVC. С WebClientTransport Mono по-прежнему обрабатывается асинхронно
+@Configuration
+@ConditionalOnProperty(name = "shareit-server.reactive", havingValue = "false", matchIfMissing = true)
+public class BlockingResponseConfig implements InitializingBean {
+    private final RequestMappingHandlerAdapter handlerAdapter;
+
+    public BlockingResponseConfig(RequestMappingHandlerAdapter handlerAdapter) {
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>();
+        HttpEntityMethodProcessor entityProcessor = null;
+        for (HandlerMethodReturnValueHandler handler : handlerAdapter.getReturnValueHandlers()) {
+            if (handler instanceof HttpEntityMethodProcessor) {
+                entityProcessor = (HttpEntityMethodProcessor) handler;
+            }
+        }
+        if (entityProcessor == null) {
+            throw new IllegalStateException("Не найден обработчик ResponseEntity");
+        }
+        // Встроенный обработчик реактивных типов стоит раньше пользовательских, поэтому этот ставится первым
+        handlers.add(new BlockingMonoReturnValueHandler(entityProcessor));
+        handlers.addAll(handlerAdapter.getReturnValueHandlers());
+        handlerAdapter.setReturnValueHandlers(handlers);
+    }
+
+    static final class BlockingMonoReturnValueHandler implements HandlerMethodReturnValueHandler {
+        // Тип возвращаемого значения, с которым ответ передается HttpEntityMethodProcessor
+        private static final MethodParameter RESPONSE_ENTITY_TYPE = responseEntityType();
+
+        private final HttpEntityMethodProcessor entityProcessor;
+
+        BlockingMonoReturnValueHandler(HttpEntityMethodProcessor entityProcessor) {
+            this.entityProcessor = entityProcessor;
+        }
+
+        @Override
+        public boolean supportsReturnType(MethodParameter returnType) {
+            return Mono.class.isAssignableFrom(returnType.getParameterType())
+                    && ResponseEntity.class.equals(ResolvableType.forMethodParameter(returnType).getGeneric(0).resolve());
+        }
+
+        @Override
+        public void handleReturnValue(Object returnValue,
+                                      MethodParameter returnType,
+                                      ModelAndViewContainer mavContainer,
+                                      NativeWebRequest webRequest) throws Exception {
+            ResponseEntity<?> response = returnValue != null
+                    ? ((Mono<?>) returnValue).cast(ResponseEntity.class).block()
+                    : null;
+            entityProcessor.handleReturnValue(response, RESPONSE_ENTITY_TYPE, mavContainer, webRequest);
+        }
+
+        static ResponseEntity<Object> responseEntity() {
+            return null;
+        }
+
+        private static MethodParameter responseEntityType() {
+            try {
+                return new MethodParameter(BlockingMonoReturnValueHandler.class.getDeclaredMethod("responseEntity"), -1);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Маршруты только для чтения, ответы которых шлюз кэширует
+@Getter
+@AllArgsConstructor
+public enum CachedRoute {
+    // GET /items/{id}
+    ITEM("gateway.items"),
+    // GET /items/search
+    ITEM_SEARCH("gateway.items.search"),
+    // GET /requests/all
+    OTHER_REQUESTS("gateway.requests.all"),
+    // GET /users/{id}
+    USER("gateway.users");
+
+    private final String cacheName;
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш успешных ответов сервера по маршрутам {@link CachedRoute}. Ключ включает X-Sharer-User-Id,
+ * поэтому пользователи не видят ответы друг друга. Запись через шлюз сбрасывает затронутые маршруты целиком;
+ * ответ, запрошенный до сброса, в кэш уже не попадет (см. generation).
+ * После ttl ответ с ETag еще хранится max-stale и перепроверяется на сервере через If-None-Match.
+ */
+@Component
+public class ResponseCache {
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Map<CachedRoute, Cache<String, CachedResponse>> caches = new EnumMap<>(CachedRoute.class);
+    private final Map<CachedRoute, AtomicLong> generations = new EnumMap<>(CachedRoute.class);
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ttlNanos = properties.getTtl().toNanos();
+        for (CachedRoute route : CachedRoute.values()) {
+            Cache<String, CachedResponse> cache = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaxSize())
+                    .expireAfterWrite(properties.getTtl().plus(properties.getMaxStale()))
+                    .recordStats()
+                    .build();
+            // cache.gets{cache=gateway.items,result=hit|miss} и т.д. в /actuator/metrics
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, route.getCacheName());
+            caches.put(route, cache);
+            generations.put(route, new AtomicLong());
+        }
+    }
+
+    @Nullable
+    public CachedResponse get(CachedRoute route, String key) {
+        return enabled ? caches.get(route).getIfPresent(key) : null;
+    }
+
+    public boolean isFresh(CachedResponse cached) {
+        return System.nanoTime() - cached.getStoredAt() < ttlNanos;
+    }
+
+    public long generation(CachedRoute route) {
+        return generations.get(route).get();
+    }
+
+    public void put(CachedRoute route, String key, long generation, ResponseEntity<Object> response) {
+        if (enabled && response.getStatusCode().is2xxSuccessful() && generation(route) == generation) {
+            caches.get(route).put(key, new CachedResponse(response, System.nanoTime()));
+        }
+    }
+
+    public void invalidate(CachedRoute... routes) {
+        for (CachedRoute route : routes) {
+            generations.get(route).incrementAndGet();
+            caches.get(route).invalidateAll();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CachedResponse {
+        private final ResponseEntity<Object> response;
+        private final long storedAt;
+
+        @Nullable
+        public String getETag() {
+            return response.getHeaders().getETag();
+        }
+    }
+}
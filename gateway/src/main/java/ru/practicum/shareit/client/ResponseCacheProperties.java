@@ -0,0 +1,19 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки кэша ответов шлюза, размер и время жизни задаются на каждый маршрут
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofSeconds(10);
+    // Сколько после ttl хранить ответ с ETag для перепроверки на сервере
+    private Duration maxStale = Duration.ofMinutes(5);
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.client;
+
+import lombok.AllArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+// Блокирующий транспорт: запрос выполняется в потоке подписчика, то есть в потоке сервлета
+@AllArgsConstructor
+class RestTemplateTransport implements ServerTransport {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private final RestTemplate rest;
+    private final Class<?> responseType;
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                 String path,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 HttpEntity<?> request) {
+        return Mono.fromSupplier(() -> send(method, path, parameters, request));
+    }
+
+    private ResponseEntity<Object> send(HttpMethod method,
+                                        String path,
+                                        @Nullable Map<String, Object> parameters,
+                                        HttpEntity<?> request) {
+        ResponseEntity<?> response;
+        try {
+            if (parameters != null) {
+                response = rest.exchange(path, method, request, responseType, parameters);
+            } else {
+                response = rest.exchange(path, method, request, responseType);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(e.getResponseHeaders())
+                    .body(e.getResponseBodyAsByteArray());
+        }
+        return new ResponseEntity<>(response.getBody(), response.getHeaders(), response.getStatusCode());
+    }
+
+    // Запрос выполняется через фабрику RestTemplate напрямую: RestTemplate закрывает ответ сразу после чтения,
+    // а здесь тело читается позже, при подписке на поток, и ответ закрывается по его завершении или отмене.
+    // Если тело не будет прочитано, подписку отменяет StreamPassthrough
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> stream(String path,
+                                                         @Nullable Map<String, Object> parameters,
+                                                         HttpEntity<?> request) {
+        return Mono.fromCallable(() -> {
+            URI uri = parameters != null
+                    ? rest.getUriTemplateHandler().expand(path, parameters)
+                    : rest.getUriTemplateHandler().expand(path);
+            ClientHttpRequest clientRequest = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            clientRequest.getHeaders().addAll(request.getHeaders());
+            ClientHttpResponse response = clientRequest.execute();
+            try {
+                Flux<DataBuffer> body = DataBufferUtils.readInputStream(response::getBody,
+                                DefaultDataBufferFactory.sharedInstance, STREAM_BUFFER_SIZE)
+                        .doFinally(signal -> response.close());
+                return ResponseEntity.status(response.getRawStatusCode())
+                        .headers(response.getHeaders())
+                        .body(body);
+            } catch (IOException | RuntimeException e) {
+                response.close();
+                throw e;
+            }
+        });
+    }
+}
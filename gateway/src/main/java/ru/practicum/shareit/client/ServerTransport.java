@@ -0,0 +1,24 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Способ отправки запроса на сервер. Ответ сервера возвращается как есть, в том числе с кодами ошибок
+public interface ServerTransport {
+    Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                          String path,
+                                          @Nullable Map<String, Object> parameters,
+                                          HttpEntity<?> request);
+
+    // GET с телом ответа в виде потока буферов: тело читается по мере поступления и не накапливается в памяти
+    Mono<ResponseEntity<Flux<DataBuffer>>> stream(String path,
+                                                  @Nullable Map<String, Object> parameters,
+                                                  HttpEntity<?> request);
+}
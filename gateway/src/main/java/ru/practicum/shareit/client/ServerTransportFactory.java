@@ -0,0 +1,50 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+// Создает транспорт для клиентов шлюза в зависимости от shareit-server.reactive и shareit-server.passthrough
+@Component
+public class ServerTransportFactory {
+    private final String serverUrl;
+    private final boolean reactive;
+    // Тело ответа сервера передается клиенту как есть, без разбора в дерево объектов и повторной сериализации
+    private final Class<?> responseType;
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final ClientHttpRequestFactory requestFactory;
+    private final WebClient.Builder webClientBuilder;
+
+    @Autowired
+    public ServerTransportFactory(@Value("${shareit-server.url}") String serverUrl,
+                                  @Value("${shareit-server.reactive}") boolean reactive,
+                                  @Value("${shareit-server.passthrough}") boolean passthrough,
+                                  RestTemplateBuilder restTemplateBuilder,
+                                  ClientHttpRequestFactory requestFactory,
+                                  WebClient.Builder webClientBuilder) {
+        this.serverUrl = serverUrl;
+        this.reactive = reactive;
+        this.responseType = passthrough ? byte[].class : Object.class;
+        this.restTemplateBuilder = restTemplateBuilder;
+        this.requestFactory = requestFactory;
+        this.webClientBuilder = webClientBuilder;
+    }
+
+    public ServerTransport create(String apiPrefix) {
+        if (reactive) {
+            return new WebClientTransport(webClientBuilder.clone().baseUrl(serverUrl + apiPrefix).build(),
+                    responseType);
+        }
+        return new RestTemplateTransport(
+                restTemplateBuilder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                responseType
+        );
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.client;
+
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Передает клиенту потоковый ответ сервера: статус и тип содержимого ожидаются в потоке сервлета,
+// а тело копируется буфер за буфером в потоке асинхронной обработки MVC со сбросом после каждого буфера.
+// Пока тело не дочитано, ответ сервера держит соединение из общего пула, поэтому по завершении асинхронной
+// обработки по любой причине (конец выгрузки, обрыв клиента, тайм-аут, ошибка) чтение тела прекращается
+public class StreamPassthrough {
+    private StreamPassthrough() {
+    }
+
+    public static ResponseEntity<StreamingResponseBody> toResponse(HttpServletRequest request,
+                                                                   Mono<ResponseEntity<Flux<DataBuffer>>> upstream) {
+        ResponseEntity<Flux<DataBuffer>> response = upstream.block();
+        if (response == null) {
+            return ResponseEntity.internalServerError().build();
+        }
+        UpstreamBody body = new UpstreamBody(response.getBody() != null ? response.getBody() : Flux.empty());
+        try {
+            WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(StreamPassthrough.class.getName(),
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                            body.release();
+                        }
+                    });
+            HttpHeaders headers = new HttpHeaders();
+            MediaType contentType = response.getHeaders().getContentType();
+            if (contentType != null) {
+                headers.setContentType(contentType);
+            }
+            return new ResponseEntity<>(body::writeTo, headers, response.getStatusCode());
+        } catch (RuntimeException e) {
+            body.release();
+            throw e;
+        }
+    }
+
+    private static void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Тело ответа сервера, которое можно прочитать один раз или освободить без чтения
+    private static final class UpstreamBody {
+        private final Flux<DataBuffer> body;
+        private final Sinks.One<Boolean> released = Sinks.one();
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        UpstreamBody(Flux<DataBuffer> body) {
+            this.body = body;
+        }
+
+        void writeTo(OutputStream out) {
+            if (!subscribed.compareAndSet(false, true)) return;
+            DataBufferUtils.write(body.takeUntilOther(released.asMono()), out)
+                    .doOnNext(buffer -> {
+                        DataBufferUtils.release(buffer);
+                        flush(out);
+                    })
+                    .then()
+                    .block();
+        }
+
+        // Прерывает идущее чтение, а если оно не начиналось, подписывается на тело и сразу отменяет подписку:
+        // транспорт закрывает ответ сервера при отмене
+        void release() {
+            released.tryEmitValue(true);
+            if (subscribed.compareAndSet(false, true)) {
+                body.subscribe(new BaseSubscriber<>() {
+                    @Override
+                    protected void hookOnSubscribe(Subscription subscription) {
+                        cancel();
+                    }
+
+                    @Override
+                    protected void hookOnError(Throwable throwable) {
+                        // тело больше никому не нужно, ответ сервера уже закрыт
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.client;
+
+import lombok.AllArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Неблокирующий транспорт: ожидание ответа сервера не занимает поток, запросы обслуживает event loop Reactor Netty
+@AllArgsConstructor
+class WebClientTransport implements ServerTransport {
+    private final WebClient webClient;
+    private final Class<?> responseType;
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                 String path,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 HttpEntity<?> request) {
+        WebClient.RequestBodySpec spec = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(request.getHeaders()));
+        WebClient.RequestHeadersSpec<?> requestSpec = request.hasBody() ? spec.bodyValue(request.getBody()) : spec;
+        return requestSpec.exchangeToMono(response -> response.toEntity(responseType)
+                .map(entity -> new ResponseEntity<Object>(entity.getBody(), entity.getHeaders(),
+                        entity.getStatusCode())));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> stream(String path,
+                                                         @Nullable Map<String, Object> parameters,
+                                                         HttpEntity<?> request) {
+        return webClient.get()
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(request.getHeaders()))
+                .retrieve()
+                // коды ошибок передаются клиенту вместе с телом, как и в exchange
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class);
+    }
+}
@@ -1,17 +1,19 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CachedRoute;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemPatchDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -19,18 +21,13 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerTransportFactory transports, ResponseCache responseCache) {
+        super(transports.create(API_PREFIX), responseCache);
     }
 
-    public ResponseEntity<Object> getUserItems(Long userId,
-                                               Integer from,
-                                               Integer size) {
+    public Mono<ResponseEntity<Object>> getUserItems(Long userId,
+                                                     Integer from,
+                                                     Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -39,39 +36,59 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findAvailableItems(Long userId,
-                                                     String search,
-                                                     Integer from,
-                                                     Integer size) {
+    public Mono<ResponseEntity<Object>> findAvailableItems(Long userId,
+                                                           String search,
+                                                           Integer from,
+                                                           Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", search,
                 "from", from,
                 "size", size
         );
 
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return cachedGet(CachedRoute.ITEM_SEARCH, "/search?text={text}&from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getItem(Long id, Long userId) {
+        return cachedGet(CachedRoute.ITEM, "/" + id, userId, null);
     }
 
-    public ResponseEntity<Object> getItem(Long id, Long userId) {
-        return get("/" + id, userId);
+    // Календарь меняется вместе с бронированиями, которые сбрасывают кэш вещей
+    public Mono<ResponseEntity<Object>> getItemAvailability(Long id, Long userId,
+                                                            @Nullable String from,
+                                                            @Nullable String to) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder path = new StringBuilder("/" + id + "/availability");
+        if (from != null) {
+            parameters.put("from", from);
+            path.append(parameters.size() == 1 ? '?' : '&').append("from={from}");
+        }
+        if (to != null) {
+            parameters.put("to", to);
+            path.append(parameters.size() == 1 ? '?' : '&').append("to={to}");
+        }
+        return cachedGet(CachedRoute.ITEM, path.toString(), userId, parameters);
     }
 
-    public ResponseEntity<Object> createItem(ItemDto itemDto, Long userId) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> createItem(ItemDto itemDto, Long userId) {
+        // Вещи попадают в поиск и в ответы на запросы
+        return invalidating(post("", userId, itemDto), CachedRoute.ITEM_SEARCH, CachedRoute.OTHER_REQUESTS);
     }
 
-    public ResponseEntity<Object> patchItem(ItemPatchDto itemDto, Long id, Long userId) {
-        return patch("/" + id, userId, itemDto);
+    public Mono<ResponseEntity<Object>> patchItem(ItemPatchDto itemDto, Long id, Long userId) {
+        return invalidating(patch("/" + id, userId, itemDto),
+                CachedRoute.ITEM, CachedRoute.ITEM_SEARCH, CachedRoute.OTHER_REQUESTS);
     }
 
 
-    public void deleteItem(Long id, Long userId) {
-        delete("/" + id, userId);
+    public Mono<ResponseEntity<Object>> deleteItem(Long id, Long userId) {
+        return invalidating(delete("/" + id, userId),
+                CachedRoute.ITEM, CachedRoute.ITEM_SEARCH, CachedRoute.OTHER_REQUESTS);
     }
 
-    public ResponseEntity<Object> createItemComment(CommentShortDto commentShortDto,
-                                                    Long itemId,
-                                                    Long userId) {
-        return post("/" + itemId + "/comment", userId, commentShortDto);
+    public Mono<ResponseEntity<Object>> createItemComment(CommentShortDto commentShortDto,
+                                                          Long itemId,
+                                                          Long userId) {
+        return invalidating(post("/" + itemId + "/comment", userId, commentShortDto), CachedRoute.ITEM);
     }
 }
@@ -29,4 +29,7 @@ public class ItemPatchDto {
     private List<CommentShortDto> comments;
 
     private Long requestId;
+
+    // Версия вещи, которую видел клиент: если вещь с тех пор изменилась, сервер ответит 409
+    private Long version;
 }
@@ -1,15 +1,16 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CachedRoute;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -17,36 +18,48 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(ServerTransportFactory transports, ResponseCache responseCache) {
+        super(transports.create(API_PREFIX), responseCache);
     }
 
-    public ResponseEntity<Object> createRequest(ItemRequestDto itemRequestDto,
-                                        Long userId) {
-        return post("", userId, itemRequestDto);
+    public Mono<ResponseEntity<Object>> createRequest(ItemRequestDto itemRequestDto,
+                                              Long userId) {
+        return invalidating(post("", userId, itemRequestDto), CachedRoute.OTHER_REQUESTS);
     }
 
-    public ResponseEntity<Object> getUserRequests(Long userId) {
+    public Mono<ResponseEntity<Object>> getUserRequests(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getOtherRequests(Long userId,
-                                                 Integer from,
-                                                 Integer size) {
+    public Mono<ResponseEntity<Object>> getOtherRequests(Long userId,
+                                                       Integer from,
+                                                       Integer size,
+                                                       Long beforeId) {
+        // from передается, только если задан: вместе с beforeId сервер его отклоняет
+        Map<String, Object> parameters = new HashMap<>(Map.of("size", size));
+        String path = "/all?size={size}";
+        if (from != null) {
+            parameters.put("from", from);
+            path += "&from={from}";
+        }
+        if (beforeId != null) {
+            parameters.put("beforeId", beforeId);
+            path += "&beforeId={beforeId}";
+        }
+
+        return cachedGet(CachedRoute.OTHER_REQUESTS, path, userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getItemRequest(Long id, Long userId) {
+        return get("/" + id, userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getSuggestions(Long id, Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
 
-        return get("/all?from={from}&size={size}", userId, parameters);
-    }
-
-    public ResponseEntity<Object> getItemRequest(Long id, Long userId) {
-        return get("/" + id, userId);
+        return get("/" + id + "/suggestions?from={from}&size={size}", userId, parameters);
     }
 }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
@@ -20,26 +21,35 @@ public class ItemRequestController {
     private final ItemRequestClient client;
 
     @PostMapping
-    public ResponseEntity<Object> createRequest(@Valid @RequestBody ItemRequestDto itemRequestDto,
-                                                @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> createRequest(@Valid @RequestBody ItemRequestDto itemRequestDto,
+                                                      @RequestHeader("X-Sharer-User-Id") Long userId) {
         return client.createRequest(itemRequestDto, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> getUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
         return client.getUserRequests(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getOtherRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                 @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                 @Positive @RequestParam(defaultValue = "10") Integer size) {
-        return client.getOtherRequests(userId, from, size);
+    public Mono<ResponseEntity<Object>> getOtherRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @PositiveOrZero @RequestParam(required = false) Integer from,
+                                                       @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                       @Positive @RequestParam(required = false) Long beforeId) {
+        return client.getOtherRequests(userId, from, size, beforeId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getItemRequest(@PathVariable Long id,
-                                        @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> getItemRequest(@PathVariable Long id,
+                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
         return client.getItemRequest(id, userId);
     }
+
+    @GetMapping("/{id}/suggestions")
+    public Mono<ResponseEntity<Object>> getSuggestions(@PathVariable Long id,
+                                                       @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                       @Positive @RequestParam(defaultValue = "10") Integer size) {
+        return client.getSuggestions(id, userId, from, size);
+    }
 }
@@ -1,47 +1,63 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CachedRoute;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserPatchDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(ServerTransportFactory transports, ResponseCache responseCache) {
+        super(transports.create(API_PREFIX), responseCache);
+    }
+
+    public Mono<ResponseEntity<Object>> getUsers(Integer from, Integer size, @Nullable Long afterId) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "from", from,
+                "size", size
+        ));
+        String path = "?from={from}&size={size}";
+        if (afterId != null) {
+            parameters.put("afterId", afterId);
+            path += "&afterId={afterId}";
+        }
+
+        return get(path, null, parameters);
     }
 
-    public ResponseEntity<Object> getUsers() {
-        return get("");
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportUsers() {
+        return stream("/export", null, null);
     }
 
-    public ResponseEntity<Object> getUser(Long id) {
-        return get("/" + id);
+    public Mono<ResponseEntity<Object>> getUser(Long id) {
+        return cachedGet(CachedRoute.USER, "/" + id, null, null);
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> patchUser(UserPatchDto userDto, Long id) {
-        return patch("/" + id, userDto);
+    public Mono<ResponseEntity<Object>> patchUser(UserPatchDto userDto, Long id) {
+        // Имя пользователя входит в комментарии и запросы, удаление каскадно затрагивает вещи
+        return invalidating(patch("/" + id, userDto), CachedRoute.values());
     }
 
-    public void deleteUser(Long id) {
-        delete("/" + id);
+    public Mono<ResponseEntity<Object>> deleteUser(Long id) {
+        return invalidating(delete("/" + id), CachedRoute.values());
     }
 }
@@ -2,13 +2,21 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.StreamPassthrough;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserPatchDto;
+import ru.practicum.shareit.util.ExportTimeout;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 @RestController
 @RequestMapping(path = "/users")
@@ -17,30 +25,39 @@ import javax.validation.Valid;
 @Validated
 public class UserController {
     private final UserClient client;
+    private final ExportTimeout exportTimeout;
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
-        return client.getUsers();
+    public Mono<ResponseEntity<Object>> getUsers(@PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                 @Positive @RequestParam(defaultValue = "100") Integer size,
+                                                 @Positive @RequestParam(required = false) Long afterId) {
+        return client.getUsers(from, size, afterId);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletRequest request) {
+        exportTimeout.extend(request);
+        return StreamPassthrough.toResponse(request, client.exportUsers());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUser(@PathVariable final Long id) {
+    public Mono<ResponseEntity<Object>> getUser(@PathVariable final Long id) {
         return client.getUser(id);
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@Valid @RequestBody final UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(@Valid @RequestBody final UserDto userDto) {
         return client.createUser(userDto);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> patchUser(@Valid @RequestBody final UserPatchDto userDto, @PathVariable final Long id) {
+    public Mono<ResponseEntity<Object>> patchUser(@Valid @RequestBody final UserPatchDto userDto, @PathVariable final Long id) {
         return client.patchUser(userDto, id);
     }
 
     @DeleteMapping("/{id}")
-    public void deleteUser(@PathVariable final Long id) {
-        client.deleteUser(id);
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable final Long id) {
+        return client.deleteUser(id);
     }
 
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+// 304 Not Modified на If-None-Match клиента. ETag приходит от сервера вместе с ответом (см. BaseClient),
+// фильтр вычисляет его сам, только если сервер его не прислал
+@Configuration
+public class EtagConfig {
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/items", "/items/*", "/bookings", "/bookings/*");
+        registration.setName("etagFilter");
+        return registration;
+    }
+}
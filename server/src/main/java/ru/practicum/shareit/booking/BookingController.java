@@ -1,17 +1,29 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingCursor;
 import ru.practicum.shareit.booking.service.BookingRequestStates;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.error.ValidationException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.ExportTimeout;
+import ru.practicum.shareit.util.NdjsonWriter;
+import ru.practicum.shareit.util.VersionTag;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,9 +32,13 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @Validated
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingMapper bookingMapper;
     private final BookingService bookingService;
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final ExportTimeout exportTimeout;
 
     @PostMapping
     public BookingDto createBooking(@RequestBody final BookingShortDto bookingShortDto,
@@ -41,31 +57,77 @@ public class BookingController {
         return BookingMapper.toDto(entity);
     }
 
+    // ETag по версиям бронирования и вещи и по данным арендатора, у которого версии нет
     @GetMapping("/{id}")
     public BookingDto getBooking(@PathVariable final Long id,
-                          @RequestHeader("X-Sharer-User-Id") Long userId) {
+                          @RequestHeader("X-Sharer-User-Id") Long userId,
+                          WebRequest request) {
         User user = userService.getUser(userId);
         Booking entity = bookingService.getBooking(id, user);
+        User booker = entity.getBooker();
+        if (request.checkNotModified(VersionTag.of(entity.getId(), entity.getVersion(), entity.getItem().getVersion(),
+                booker.getId(), booker.getName(), booker.getEmail()))) {
+            return null;
+        }
         return BookingMapper.toDto(entity);
     }
 
     @GetMapping
-    public List<BookingDto> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<List<BookingDto>> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
                                             @RequestParam(defaultValue = "ALL") BookingRequestStates state,
-                                            @RequestParam(defaultValue = "0") Integer from,
-                                            @RequestParam(defaultValue = "10") Integer size) {
+                                            @RequestParam(required = false) Integer from,
+                                            @RequestParam(defaultValue = "10") Integer size,
+                                            @RequestParam(required = false) String cursor) {
         User user = userService.getUser(userId);
-        List<Booking> bookings = bookingService.getUserBooking(user, state, from, size);
-        return bookings.stream().map(BookingMapper::toDto).collect(Collectors.toList());
+        List<Booking> bookings = cursor == null
+                ? bookingService.getUserBooking(user, state, from == null ? 0 : from, size)
+                : bookingService.getUserBooking(user, state, decodeCursor(cursor, from), size);
+        return toPageResponse(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<List<BookingDto>> getBookingsUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                  @RequestParam(defaultValue = "ALL") BookingRequestStates state,
-                                                 @RequestParam(defaultValue = "0") Integer from,
-                                                 @RequestParam(defaultValue = "10") Integer size) {
+                                                 @RequestParam(required = false) Integer from,
+                                                 @RequestParam(defaultValue = "10") Integer size,
+                                                 @RequestParam(required = false) String cursor) {
+        User user = userService.getUser(userId);
+        List<Booking> bookings = cursor == null
+                ? bookingService.getUserItemsBookings(user, state, from == null ? 0 : from, size)
+                : bookingService.getUserItemsBookings(user, state, decodeCursor(cursor, from), size);
+        return toPageResponse(bookings, size);
+    }
+
+    // Вся история бронирований вещей владельца построчно в NDJSON. Ответ не буферизуется фильтром ETag,
+    // тип содержимого задается явно: produces участвует только в выборе обработчика
+    @GetMapping(value = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookingsUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                         HttpServletRequest request) {
         User user = userService.getUser(userId);
-        List<Booking> bookings = bookingService.getUserItemsBookings(user, state, from, size);
-        return bookings.stream().map(BookingMapper::toDto).collect(Collectors.toList());
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        exportTimeout.extend(request);
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+            bookingService.exportUserItemsBookings(user, booking -> writer.write(BookingMapper.toDto(booking)));
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Курсор сам задает начало страницы, поэтому смещение вместе с ним не принимается, а не отбрасывается молча
+    private static BookingCursor decodeCursor(String cursor, Integer from) {
+        if (from != null) {
+            throw new ValidationException("Параметры from и cursor нельзя передавать вместе");
+        }
+        return BookingCursor.decode(cursor);
+    }
+
+    private ResponseEntity<List<BookingDto>> toPageResponse(List<Booking> bookings, Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        BookingCursor nextCursor = BookingCursor.nextOf(bookings, size);
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.encode());
+        }
+        return response.body(bookings.stream().map(BookingMapper::toDto).collect(Collectors.toList()));
     }
 }
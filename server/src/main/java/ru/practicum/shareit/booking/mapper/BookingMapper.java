@@ -3,8 +3,10 @@ package ru.practicum.shareit.booking.mapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.error.NotFoundException;
@@ -52,6 +54,14 @@ public class BookingMapper {
                 .build();
     }
 
+    public static AvailabilityIntervalDto toDto(AvailabilityInterval interval) {
+        return AvailabilityIntervalDto.builder()
+                .start(interval.getStart().format(DATE_FORMAT))
+                .end(interval.getEnd().format(DATE_FORMAT))
+                .status(interval.getStatus().name())
+                .build();
+    }
+
     public Booking toEntity(BookingShortDto bookingShortDto, Long bookerId) {
         Booking booking = Booking.builder()
                 .id(bookingShortDto.getId())
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class AvailabilityInterval {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final AvailabilityStatus status;
+}
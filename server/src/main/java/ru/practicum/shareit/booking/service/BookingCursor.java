@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.error.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+// Позиция (start_date, id) последней отданной строки списка бронирований.
+// Клиенту передается как непрозрачная строка, следующая страница читается условием
+// (start_date, id) < (cursor.start, cursor.id) без OFFSET.
+@Getter
+@AllArgsConstructor
+public class BookingCursor {
+    private static final String SEPARATOR = ";";
+
+    private final LocalDateTime start;
+    private final long id;
+
+    public static BookingCursor of(Booking booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public static BookingCursor nextOf(List<Booking> page, Integer size) {
+        if (page.isEmpty() || page.size() < size) return null;
+        return of(page.get(page.size() - 1));
+    }
+
+    public static BookingCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = value.split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new ValidationException(String.format("Некорректный курсор %s", cursor));
+            }
+            return new BookingCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException(String.format("Некорректный курсор %s", cursor));
+        }
+    }
+
+    public String encode() {
+        String value = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
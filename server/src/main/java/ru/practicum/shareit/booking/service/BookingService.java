@@ -1,10 +1,13 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     Booking createBooking(Booking entity);
@@ -15,7 +18,15 @@ public interface BookingService {
 
     List<Booking> getUserBooking(User user, BookingRequestStates state, Integer from, Integer size);
 
+    List<Booking> getUserBooking(User user, BookingRequestStates state, BookingCursor cursor, Integer size);
+
     List<Booking> getUserItemsBookings(User user, BookingRequestStates state, Integer from, Integer size);
 
-    List<Booking> getItemBookings(Item item);
+    List<Booking> getUserItemsBookings(User user, BookingRequestStates state, BookingCursor cursor, Integer size);
+
+    List<Booking> getLastAndNextBookings(List<Item> items);
+
+    List<AvailabilityInterval> getItemAvailability(Item item, LocalDateTime from, LocalDateTime to);
+
+    void exportUserItemsBookings(User user, Consumer<Booking> consumer);
 }
@@ -1,40 +1,71 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.error.ConflictException;
 import ru.practicum.shareit.error.NotFoundException;
 import ru.practicum.shareit.error.ValidationException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.OffsetPageRequest;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final Sort SORT_BY_START_DESC = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final Duration MAX_AVAILABILITY_PERIOD = Duration.ofDays(366);
+    private static final String OVERLAP_CONSTRAINT = "ex_bookings_item_approved_period";
+
     private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemCalendar itemCalendar;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
     public Booking createBooking(Booking booking) {
-       return bookingRepository.save(booking);
+        if (overlapsApproved(booking)) {
+            throw new ConflictException(String.format("Вещь %d уже забронирована на этот период",
+                    booking.getItem().getId()));
+        }
+        Booking saved = saveChecked(booking);
+        itemCalendar.onSaved(saved);
+        return saved;
     }
 
+    // Параллельное подтверждение/отклонение обнаруживается по версии бронирования при коммите,
+    // повтор перечитывает бронирование и заново проверяет его статус. Подтверждения одной вещи
+    // ждут друг друга на блокировке строки вещи, ее версия при этом не меняется
     @Override
     @Transactional()
+    @Retryable(value = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 20, maxDelay = 200, random = true))
     public Booking approveBooking(Long id, User user, Boolean approved) {
         Optional<Booking> optionalBooking = bookingRepository.findById(id);
         Booking booking = optionalBooking.orElseThrow(() -> new NotFoundException(String.format("Бронирование с id=%d не найдено", id)));
-        if (booking.getItem().getOwner() != user) {
+        if (booking.getItem().getOwner().getId() != user.getId()) {
             throw new NotFoundException(String.format("Бронирование %d не относится к вещям пользователя %d", id, user.getId()));
         }
 
@@ -44,9 +75,38 @@ public class BookingServiceImpl implements BookingService {
 
         booking.setStatus(BookingStatus.REJECTED);
         if (approved) {
+            itemRepository.lockById(booking.getItem().getId());
+            if (overlapsApproved(booking)) {
+                throw new ConflictException(String.format("Вещь %d уже забронирована на этот период",
+                        booking.getItem().getId()));
+            }
             booking.setStatus(BookingStatus.APPROVED);
         }
-        return bookingRepository.save(booking);
+        Booking saved = saveChecked(booking);
+        itemCalendar.onSaved(saved);
+        return saved;
+    }
+
+    // Пересечение, пропущенное проверкой выше, ловит ограничение-исключение в Postgres: изменения сбрасываются сразу,
+    // чтобы нарушение пришло здесь, а не при коммите. Остальные нарушения целостности пробрасываются как есть
+    private Booking saveChecked(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message != null && message.contains(OVERLAP_CONSTRAINT)) {
+                throw new ConflictException(String.format("Вещь %d уже забронирована на этот период",
+                        booking.getItem().getId()));
+            }
+            throw e;
+        }
+    }
+
+    private boolean overlapsApproved(Booking booking) {
+        return bookingRepository.findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(booking.getItem(),
+                        BookingStatus.APPROVED, booking.getEnd())
+                .filter(approved -> approved.getEnd().isAfter(booking.getStart()))
+                .isPresent();
     }
 
     @Override
@@ -54,7 +114,7 @@ public class BookingServiceImpl implements BookingService {
     public Booking getBooking(Long id, User user) {
         Optional<Booking> optionalBooking = bookingRepository.findById(id);
         Booking booking = optionalBooking.orElseThrow(() -> new NotFoundException(String.format("Бронирование с id=%d не найдено", id)));
-        if (booking.getItem().getOwner() != user && booking.getBooker() != user) {
+        if (booking.getItem().getOwner().getId() != user.getId() && booking.getBooker().getId() != user.getId()) {
             throw new NotFoundException(String.format("Бронирование %d не относится к вещям пользователя и не является бронью пользователя %d", id, user.getId()));
         }
         return booking;
@@ -63,63 +123,124 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional(readOnly = true)
     public List<Booking> getUserBooking(User user, BookingRequestStates state, Integer from, Integer size) {
-        List<Booking> bookings = bookingRepository.findByBooker(user);
-        return getBookingByState(bookings, state, from, size);
+        Pageable page = OffsetPageRequest.of(from, size, SORT_BY_START_DESC);
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case CURRENT:
+                return bookingRepository.findByBookerAndStartBeforeAndEndAfter(user, now, now, page);
+            case PAST:
+                return bookingRepository.findByBookerAndEndBefore(user, now, page);
+            case FUTURE:
+                return bookingRepository.findByBookerAndStartAfter(user, now, page);
+            case WAITING:
+                return bookingRepository.findByBookerAndStatus(user, BookingStatus.WAITING, page);
+            case REJECTED:
+                return bookingRepository.findByBookerAndStatus(user, BookingStatus.REJECTED, page);
+            default:
+                return bookingRepository.findByBooker(user, page);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Booking> getUserItemsBookings(User user, BookingRequestStates state, Integer from, Integer size) {
-        List<Booking> bookings = bookingRepository.findByItem_Owner(user);
-        return getBookingByState(bookings, state, from, size);
+    public List<Booking> getUserBooking(User user, BookingRequestStates state, BookingCursor cursor, Integer size) {
+        Pageable page = OffsetPageRequest.of(0, size);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = cursor.getStart();
+        long id = cursor.getId();
+        switch (state) {
+            case CURRENT:
+                return bookingRepository.findCurrentByBookerBefore(user, start, id, now, page);
+            case PAST:
+                return bookingRepository.findPastByBookerBefore(user, start, id, now, page);
+            case FUTURE:
+                return bookingRepository.findFutureByBookerBefore(user, start, id, now, page);
+            case WAITING:
+                return bookingRepository.findByBookerAndStatusBefore(user, start, id, BookingStatus.WAITING, page);
+            case REJECTED:
+                return bookingRepository.findByBookerAndStatusBefore(user, start, id, BookingStatus.REJECTED, page);
+            default:
+                return bookingRepository.findByBookerBefore(user, start, id, page);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Booking> getItemBookings(Item item) {
-        List<Booking> bookings = bookingRepository.findByItem(item);
-        return getBookingByState(bookings, BookingRequestStates.ALL, 0, 100);
+    public List<Booking> getUserItemsBookings(User user, BookingRequestStates state, Integer from, Integer size) {
+        Pageable page = OffsetPageRequest.of(from, size, SORT_BY_START_DESC);
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case CURRENT:
+                return bookingRepository.findByItem_OwnerAndStartBeforeAndEndAfter(user, now, now, page);
+            case PAST:
+                return bookingRepository.findByItem_OwnerAndEndBefore(user, now, page);
+            case FUTURE:
+                return bookingRepository.findByItem_OwnerAndStartAfter(user, now, page);
+            case WAITING:
+                return bookingRepository.findByItem_OwnerAndStatus(user, BookingStatus.WAITING, page);
+            case REJECTED:
+                return bookingRepository.findByItem_OwnerAndStatus(user, BookingStatus.REJECTED, page);
+            default:
+                return bookingRepository.findByItem_Owner(user, page);
+        }
     }
 
-    private List<Booking> getBookingByState(List<Booking> bookings, BookingRequestStates state, Integer from, Integer size) {
-        Stream<Booking> bookingStream = bookings.stream();
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getUserItemsBookings(User user, BookingRequestStates state, BookingCursor cursor,
+                                              Integer size) {
+        Pageable page = OffsetPageRequest.of(0, size);
         LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = cursor.getStart();
+        long id = cursor.getId();
         switch (state) {
             case CURRENT:
-                bookingStream = bookingStream.filter(booking -> booking.getStart().isBefore(now)
-                        && booking.getEnd().isAfter(now));
-                break;
+                return bookingRepository.findCurrentByItem_OwnerBefore(user, start, id, now, page);
             case PAST:
-                bookingStream = bookingStream.filter(booking -> booking.getEnd().isBefore(now));
-                break;
+                return bookingRepository.findPastByItem_OwnerBefore(user, start, id, now, page);
             case FUTURE:
-                bookingStream = bookingStream.filter(booking -> booking.getStart().isAfter(now));
-                break;
+                return bookingRepository.findFutureByItem_OwnerBefore(user, start, id, now, page);
             case WAITING:
-                bookingStream = bookingStream.filter(booking -> booking.getStatus() == BookingStatus.WAITING);
-                break;
+                return bookingRepository.findByItem_OwnerAndStatusBefore(user, start, id, BookingStatus.WAITING, page);
             case REJECTED:
-                bookingStream = bookingStream.filter(booking -> booking.getStatus() == BookingStatus.REJECTED);
-                break;
+                return bookingRepository.findByItem_OwnerAndStatusBefore(user, start, id, BookingStatus.REJECTED, page);
             default:
-                break;
+                return bookingRepository.findByItem_OwnerBefore(user, start, id, page);
         }
+    }
 
-        if (from == 0) {
-            return bookingStream.sorted(this::compareStartDate).limit(size).collect(Collectors.toList());
+    // Обработанное бронирование отсоединяется вместе с вещью и арендатором, поэтому память не растет с историей
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUserItemsBookings(User user, Consumer<Booking> consumer) {
+        try (Stream<Booking> bookings = bookingRepository.streamByItem_Owner(user)) {
+            bookings.forEach(booking -> {
+                consumer.accept(booking);
+                entityManager.detach(booking);
+                entityManager.detach(booking.getItem());
+                entityManager.detach(booking.getBooker());
+            });
         }
+    }
 
-        List<Booking> books = bookingStream.sorted(this::compareStartDate).collect(Collectors.toList());
-
-        return IntStream
-                .range(0, books.size())
-                .filter(i -> i >= from)
-                .mapToObj(books::get)
-                .limit(size)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getLastAndNextBookings(List<Item> items) {
+        if (items.isEmpty()) return new ArrayList<>();
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        return bookingRepository.findLastAndNextByItemIdIn(itemIds, LocalDateTime.now());
     }
 
-    private int compareStartDate(Booking booking1, Booking booking2) {
-        return -booking1.getStart().compareTo(booking2.getStart());
+    @Override
+    @Transactional(readOnly = true)
+    public List<AvailabilityInterval> getItemAvailability(Item item, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new ValidationException(String.format("Дата начала %s должна быть меньше даты окончания %s", from, to));
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_PERIOD) > 0) {
+            throw new ValidationException(String.format("Период не может быть больше %d дней",
+                    MAX_AVAILABILITY_PERIOD.toDays()));
+        }
+        return itemCalendar.getAvailability(item.getId(), from, to);
     }
 }
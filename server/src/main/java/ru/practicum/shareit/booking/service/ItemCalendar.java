@@ -0,0 +1,178 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
+import ru.practicum.shareit.booking.model.AvailabilityStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.util.IntervalTree;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Календарь занятости вещей: для каждой вещи дерево интервалов ее ожидающих и подтвержденных бронирований,
+// закончившихся не раньше чем HISTORY назад. Дерево загружается из БД при первом обращении, обновляется после
+// коммита изменений в BookingServiceImpl и при обновлении теряет закончившиеся интервалы. Запросы за период
+// раньше границы дерева читают бронирования из БД напрямую
+@Component
+public class ItemCalendar {
+    private static final List<BookingStatus> TRACKED = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    // Запас в прошлое: период по умолчанию начинается с текущей секунды, и такие запросы должны попадать в дерево
+    private static final Duration HISTORY = Duration.ofDays(1);
+
+    private final BookingRepository bookingRepository;
+    private final Clock clock;
+    private final Cache<Long, Calendar> calendars;
+
+    @Autowired
+    public ItemCalendar(BookingRepository bookingRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${shareit.calendar.max-items:10000}") long maxItems,
+                        @Value("${shareit.calendar.expire-after-access:10m}") Duration expireAfterAccess) {
+        this(bookingRepository, meterRegistry, maxItems, expireAfterAccess, Clock.systemDefaultZone());
+    }
+
+    public ItemCalendar(BookingRepository bookingRepository,
+                        MeterRegistry meterRegistry,
+                        long maxItems,
+                        Duration expireAfterAccess,
+                        Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.clock = clock;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, "item-calendars");
+    }
+
+    // Разбивает [from, to) на идущие подряд отрезки: подтвержденное бронирование делает отрезок занятым,
+    // только ожидающие подтверждения - ожидающим, остальное время свободно
+    public List<AvailabilityInterval> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, int[]> deltas = new TreeMap<>();
+        deltas.put(from, new int[2]);
+        deltas.put(to, new int[2]);
+        for (IntervalTree.Interval<BookingStatus> booking : findOverlapping(itemId, from, to)) {
+            int kind = booking.getValue() == BookingStatus.APPROVED ? 0 : 1;
+            LocalDateTime start = booking.getStart().isBefore(from) ? from : booking.getStart();
+            LocalDateTime end = booking.getEnd().isAfter(to) ? to : booking.getEnd();
+            deltas.computeIfAbsent(start, k -> new int[2])[kind]++;
+            deltas.computeIfAbsent(end, k -> new int[2])[kind]--;
+        }
+
+        List<AvailabilityInterval> result = new ArrayList<>();
+        int approved = 0;
+        int waiting = 0;
+        LocalDateTime start = null;
+        AvailabilityStatus status = null;
+        for (Map.Entry<LocalDateTime, int[]> point : deltas.entrySet()) {
+            if (!point.getKey().isBefore(to)) {
+                result.add(new AvailabilityInterval(start, to, status));
+                break;
+            }
+            approved += point.getValue()[0];
+            waiting += point.getValue()[1];
+            AvailabilityStatus next = approved > 0 ? AvailabilityStatus.BUSY
+                    : waiting > 0 ? AvailabilityStatus.WAITING
+                    : AvailabilityStatus.FREE;
+            if (next == status) continue;
+            if (status != null) {
+                result.add(new AvailabilityInterval(start, point.getKey(), status));
+            }
+            start = point.getKey();
+            status = next;
+        }
+        return result;
+    }
+
+    public void onSaved(Booking booking) {
+        long itemId = booking.getItem().getId();
+        long id = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        BookingStatus status = booking.getStatus();
+        // Пока дерево вещи загружается, computeIfPresent ждет окончания загрузки, поэтому изменение не теряется
+        afterCommit(() -> calendars.asMap().computeIfPresent(itemId, (key, calendar) -> {
+            if (TRACKED.contains(status)) {
+                calendar.tree.put(id, start, end, status);
+            } else {
+                calendar.tree.remove(id);
+            }
+            calendar.prune(LocalDateTime.now(clock).minus(HISTORY));
+            return calendar;
+        }));
+    }
+
+    private List<IntervalTree.Interval<BookingStatus>> findOverlapping(long itemId, LocalDateTime from,
+                                                                      LocalDateTime to) {
+        Calendar calendar = calendars.get(itemId, this::load);
+        if (!from.isBefore(calendar.horizon)) {
+            return calendar.tree.findOverlapping(from, to);
+        }
+        List<IntervalTree.Interval<BookingStatus>> result = new ArrayList<>();
+        for (Booking booking : bookingRepository.findByItem_IdAndStatusInAndStartBeforeAndEndAfter(itemId, TRACKED,
+                to, from)) {
+            result.add(new IntervalTree.Interval<>(booking.getId(), booking.getStart(), booking.getEnd(),
+                    booking.getStatus()));
+        }
+        return result;
+    }
+
+    private Calendar load(long itemId) {
+        LocalDateTime horizon = LocalDateTime.now(clock).minus(HISTORY);
+        Calendar calendar = new Calendar(horizon);
+        for (Booking booking : bookingRepository.findByItem_IdAndStatusInAndEndAfter(itemId, TRACKED, horizon)) {
+            calendar.tree.put(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus());
+        }
+        return calendar;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Дерево содержит все отслеживаемые бронирования вещи, заканчивающиеся позже horizon
+    private static final class Calendar {
+        private final IntervalTree<BookingStatus> tree = new IntervalTree<>();
+        private volatile LocalDateTime horizon;
+
+        Calendar(LocalDateTime horizon) {
+            this.horizon = horizon;
+        }
+
+        void prune(LocalDateTime newHorizon) {
+            if (!newHorizon.isAfter(horizon)) return;
+            horizon = newHorizon;
+            for (IntervalTree.Interval<BookingStatus> interval : tree.findOverlapping(LocalDateTime.MIN, newHorizon)) {
+                if (!interval.getEnd().isAfter(newHorizon)) {
+                    tree.remove(interval.getId());
+                }
+            }
+        }
+    }
+}
@@ -1,25 +1,153 @@
 package ru.practicum.shareit.booking.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByItem(Item item);
+    List<Booking> findByItem_IdAndStatusInAndEndAfter(long itemId, Collection<BookingStatus> statuses,
+                                                      LocalDateTime end);
+
+    List<Booking> findByItem_IdAndStatusInAndStartBeforeAndEndAfter(long itemId, Collection<BookingStatus> statuses,
+                                                                    LocalDateTime to, LocalDateTime from);
+
+    // Вся история бронирований вещей владельца курсором БД: вещь и арендатор приходят в той же строке,
+    // сущности только для чтения и не попадают в кэш второго уровня. Поток закрывается внутри транзакции
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner = ?1 order by b.start desc, b.id desc")
+    Stream<Booking> streamByItem_Owner(User owner);
+
+    // Подтвержденные бронирования одной вещи не пересекаются, поэтому пересечься с периодом [start, end)
+    // может только последнее из начавшихся раньше end; поиск идет по индексу (item_id, status, start_date)
+    Optional<Booking> findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(Item item, BookingStatus status,
+                                                                           LocalDateTime end);
+
+    // Для каждой вещи не более двух строк: последнее начавшееся и ближайшее будущее бронирование,
+    // отклоненные и отмененные бронирования не учитываются
+    @Query(value = "select b.* from bookings b where b.id in (" +
+            "select x.id from (" +
+            "select nb.id, row_number() over (" +
+            "partition by nb.item_id, case when nb.start_date < ?2 then 0 else 1 end " +
+            "order by case when nb.start_date < ?2 then nb.start_date end desc, " +
+            "case when nb.start_date < ?2 then null else nb.start_date end asc, nb.id desc) as rn " +
+            "from bookings nb " +
+            "where nb.item_id in (?1) and nb.status in ('WAITING', 'APPROVED') and nb.start_date <> ?2" +
+            ") x where x.rn = 1) " +
+            "order by b.start_date desc, b.id desc", nativeQuery = true)
+    List<Booking> findLastAndNextByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
 
     @Query("select (count(b) > 0) from Booking b " +
             "where b.item = ?1 and b.booker = ?2 and b.status <> 'REJECTED' and b.start <= ?3")
     boolean existsByItemAndBookerAndStatusNotAndStartLessThanEqual(Item item, User booker, LocalDateTime start);
 
-    List<Booking> findByBooker(User user);
+    List<Booking> findByBooker(User booker, Pageable pageable);
+
+    List<Booking> findByBookerAndStartBeforeAndEndAfter(User booker, LocalDateTime start, LocalDateTime end,
+                                                        Pageable pageable);
+
+    List<Booking> findByBookerAndEndBefore(User booker, LocalDateTime end, Pageable pageable);
+
+    List<Booking> findByBookerAndStartAfter(User booker, LocalDateTime start, Pageable pageable);
+
+    List<Booking> findByBookerAndStatus(User booker, BookingStatus status, Pageable pageable);
+
+    List<Booking> findByItem_Owner(User owner, Pageable pageable);
+
+    List<Booking> findByItem_OwnerAndStartBeforeAndEndAfter(User owner, LocalDateTime start, LocalDateTime end,
+                                                            Pageable pageable);
+
+    List<Booking> findByItem_OwnerAndEndBefore(User owner, LocalDateTime end, Pageable pageable);
+
+    List<Booking> findByItem_OwnerAndStartAfter(User owner, LocalDateTime start, Pageable pageable);
+
+    List<Booking> findByItem_OwnerAndStatus(User owner, BookingStatus status, Pageable pageable);
+
+    @Query("select b from Booking b where b.booker = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByBookerBefore(User booker, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("select b from Booking b where b.booker = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.start < ?4 and b.end > ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findCurrentByBookerBefore(User booker, LocalDateTime start, long id,
+                                            LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b where b.booker = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.end < ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findPastByBookerBefore(User booker, LocalDateTime start, long id,
+                                         LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b where b.booker = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.start > ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findFutureByBookerBefore(User booker, LocalDateTime start, long id,
+                                           LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b where b.booker = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.status = ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByBookerAndStatusBefore(User booker, LocalDateTime start, long id,
+                                              BookingStatus status, Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByItem_OwnerBefore(User owner, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.start < ?4 and b.end > ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findCurrentByItem_OwnerBefore(User owner, LocalDateTime start, long id,
+                                                LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.end < ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findPastByItem_OwnerBefore(User owner, LocalDateTime start, long id,
+                                             LocalDateTime now, Pageable pageable);
 
-    List<Booking> findByItem_Owner(User user);
+    @Query("select b from Booking b where b.item.owner = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.start > ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findFutureByItem_OwnerBefore(User owner, LocalDateTime start, long id,
+                                               LocalDateTime now, Pageable pageable);
 
+    @Query("select b from Booking b where b.item.owner = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.status = ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByItem_OwnerAndStatusBefore(User owner, LocalDateTime start, long id,
+                                                  BookingStatus status, Pageable pageable);
 }
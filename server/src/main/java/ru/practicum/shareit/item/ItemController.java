@@ -3,7 +3,12 @@ package ru.practicum.shareit.item;
 import lombok.AllArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.error.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -15,15 +20,24 @@ import ru.practicum.shareit.item.service.CommentService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.VersionTag;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import static ru.practicum.shareit.GlobalProperties.DATE_FORMAT;
+
 @RestController
 @RequestMapping("/items")
 @AllArgsConstructor
 @Validated
 public class ItemController {
+    private static final long DEFAULT_AVAILABILITY_DAYS = 30;
+
     private final ItemService itemService;
     private final UserService userService;
     private final CommentService commentService;
@@ -37,7 +51,13 @@ public class ItemController {
                                   @RequestParam(defaultValue = "10") Integer size) {
         User user = userService.getUser(userId);
         List<Item> items = itemService.getUserItems(user, from, size);
-        return items.stream().map(item -> ItemMapper.toDto(item, commentService.getItemComments(item), bookingService.getItemBookings(item)))
+        Map<Long, List<Comment>> comments = commentService.getItemsComments(items).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        Map<Long, List<Booking>> bookings = bookingService.getLastAndNextBookings(items).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        return items.stream().map(item -> ItemMapper.toDto(item,
+                        comments.getOrDefault(item.getId(), List.of()),
+                        bookings.getOrDefault(item.getId(), List.of())))
                 .sorted(this::compareNextBookingDate).collect(Collectors.toList());
     }
 
@@ -58,14 +78,49 @@ public class ItemController {
         return items.stream().map(ItemMapper::toDto).collect(Collectors.toList());
     }
 
+    // ETag по версиям вещи и ее бронирований; отзывы не редактируются, поэтому в тег входят их id и имена авторов
     @GetMapping("/{id}")
-    public ItemDto getItem(@PathVariable final Long id, @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ItemDto getItem(@PathVariable final Long id, @RequestHeader("X-Sharer-User-Id") Long userId,
+                           WebRequest request) {
         Item item = itemService.getItem(id);
         List<Comment> comments = commentService.getItemComments(item);
-        if (item.getOwner().getId() == userId) {
-            return ItemMapper.toDto(item, comments, bookingService.getItemBookings(item));
+        List<Booking> bookings = item.getOwner().getId() == userId
+                ? bookingService.getLastAndNextBookings(List.of(item))
+                : null;
+        if (request.checkNotModified(itemTag(item, comments, bookings))) {
+            return null;
+        }
+        return bookings == null ? ItemMapper.toDto(item, comments) : ItemMapper.toDto(item, comments, bookings);
+    }
+
+    private static String itemTag(Item item, List<Comment> comments, List<Booking> bookings) {
+        return VersionTag.of(item.getId(), item.getVersion(),
+                comments.stream().map(comment -> comment.getId() + ":" + comment.getAuthor().getName()).toArray(),
+                bookings == null ? null
+                        : bookings.stream().map(booking -> booking.getId() + ":" + booking.getVersion()).toArray());
+    }
+
+    // Свободные и занятые отрезки времени вещи, по умолчанию на 30 дней вперед
+    @GetMapping("/{id}/availability")
+    public List<AvailabilityIntervalDto> getItemAvailability(@PathVariable final Long id,
+                                                             @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @RequestParam(required = false) String from,
+                                                             @RequestParam(required = false) String to) {
+        userService.getUser(userId);
+        Item item = itemService.getItem(id);
+        LocalDateTime start = from == null ? LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS) : parseDate(from);
+        LocalDateTime end = to == null ? start.plusDays(DEFAULT_AVAILABILITY_DAYS) : parseDate(to);
+        return bookingService.getItemAvailability(item, start, end).stream()
+                .map(BookingMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private static LocalDateTime parseDate(String value) {
+        try {
+            return LocalDateTime.parse(value, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException(String.format("Некорректная дата %s", value));
         }
-        return ItemMapper.toDto(item, comments);
     }
 
     @PostMapping
@@ -77,7 +132,7 @@ public class ItemController {
 
     @PatchMapping("/{id}")
     public ItemDto patchItem(@RequestBody final ItemDto itemDto, @PathVariable final Long id, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        ItemDto oldItemDto = getItem(id, userId);
+        ItemDto oldItemDto = ItemMapper.toDto(itemService.getItem(id));
         ItemDto newItemDto = itemMapper.patch(oldItemDto, itemDto);
         Item newItem = itemMapper.toEntity(newItemDto, userId);
         newItem = itemService.updateItem(newItem);
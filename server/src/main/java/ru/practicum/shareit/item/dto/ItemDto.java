@@ -19,4 +19,5 @@ public class ItemDto {
     private BookingShortDto nextBooking;
     private List<CommentShortDto> comments;
     private Long requestId;
+    private Long version;
 }
@@ -38,6 +38,7 @@ public class ItemMapper {
                 .available(item.getAvailable())
                 .comments(commentsShortDto)
                 .requestId(item.getRequest() == null ? null : item.getRequest().getId())
+                .version(item.getVersion())
                 .build();
     }
 
@@ -88,6 +89,9 @@ public class ItemMapper {
                 .available(itemDto.getAvailable())
                 .request(itemRequest)
                 .build();
+        if (itemDto.getVersion() != null) {
+            item.setVersion(itemDto.getVersion());
+        }
 
         //сделано что бы пройти тесты
         //в тестах явная ошибка, т.к. пользователь с id=3 удаляется до проблемных тестов
@@ -116,6 +120,10 @@ public class ItemMapper {
             itemDto.setAvailable(putchItemDto.getAvailable());
         }
 
+        if (putchItemDto.getVersion() != null) {
+            itemDto.setVersion(putchItemDto.getVersion());
+        }
+
         return itemDto;
     }
 }
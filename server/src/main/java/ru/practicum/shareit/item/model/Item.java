@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -12,6 +14,7 @@ import javax.persistence.*;
 @AllArgsConstructor
 @Builder
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item-entities")
 @Table(name = "items")
 public class Item {
     @Id
@@ -34,4 +37,7 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn
     private ItemRequest request;
+
+    @Version
+    private long version;
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+// Полнотекстовый поиск PostgreSQL по колонке items.search_vector (schema-fulltext.sql),
+// результаты упорядочены по ts_rank
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = ItemSearchStrategy.PROPERTY, havingValue = "fulltext")
+public class FullTextItemSearchStrategy implements ItemSearchStrategy {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.findAvailableByFullText(text, pageable);
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.error.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.util.InvertedIndex;
+import ru.practicum.shareit.util.Tokenizer;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Поиск по инвертированному индексу в памяти: каждое слово запроса должно быть началом
+// какого-либо слова в названии или описании вещи (слова короче трех букв - целым словом, см. InvertedIndex).
+// Запрос только из слишком общих префиксов отклоняется с 400, а не отдает неполный результат.
+// БД читается только для итоговой страницы. Индекс строится при старте и обновляется после коммита
+// изменений вещей в ItemServiceImpl только этого экземпляра сервера: изменения, сделанные через другие
+// экземпляры, в нем не видны до перезапуска, поэтому стратегия подходит только для одного экземпляра
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = ItemSearchStrategy.PROPERTY, havingValue = "index")
+public class IndexItemSearchStrategy implements ItemSearchStrategy {
+    private static final int BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final InvertedIndex index = new InvertedIndex();
+
+    @PostConstruct
+    public void rebuild() {
+        index.clear();
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BATCH_SIZE));
+            for (Item item : batch) {
+                index.put(item.getId(), tokenize(item));
+                lastId = item.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        long[] ids;
+        try {
+            ids = index.findAllByPrefix(tokens);
+        } catch (InvertedIndex.PrefixTooBroadException e) {
+            throw new ValidationException(e.getMessage());
+        }
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        if (from >= to) return new ArrayList<>();
+
+        List<Long> pageIds = Arrays.stream(ids, from, to).boxed().collect(Collectors.toList());
+        Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void indexItem(Item item) {
+        long id = item.getId();
+        List<String> tokens = Boolean.TRUE.equals(item.getAvailable()) ? tokenize(item) : List.of();
+        afterCommit(() -> index.put(id, tokens));
+    }
+
+    @Override
+    public void removeItem(long id) {
+        afterCommit(() -> index.remove(id));
+    }
+
+    private static List<String> tokenize(Item item) {
+        return Tokenizer.tokenize(item.getName(), item.getDescription());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+// Способ поиска доступных вещей по тексту, выбирается свойством shareit.item.search
+public interface ItemSearchStrategy {
+    String PROPERTY = "shareit.item.search";
+
+    List<Item> search(String text, Pageable pageable);
+
+    // Вызываются ItemServiceImpl после сохранения и удаления вещи, нужны стратегиям со своим индексом
+    default void indexItem(Item item) {
+    }
+
+    default void removeItem(long id) {
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+// Поиск подстроки через upper(...) like '%text%', работает на любой БД, но без индекса
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = ItemSearchStrategy.PROPERTY, havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchStrategy implements ItemSearchStrategy {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.findByAvailableTrueAndNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(text,
+                pageable);
+    }
+}
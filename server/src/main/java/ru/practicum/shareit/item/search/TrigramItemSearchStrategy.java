@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+// Поиск подстроки через ilike, ускоренный GIN-индексами pg_trgm (schema-trigram.sql).
+// В отличие от полнотекстового поиска сохраняет семантику "часть слова"
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = ItemSearchStrategy.PROPERTY, havingValue = "trigram")
+public class TrigramItemSearchStrategy implements ItemSearchStrategy {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.findAvailableBySubstring(text, pageable);
+    }
+}
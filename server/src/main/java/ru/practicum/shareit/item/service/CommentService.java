@@ -11,4 +11,6 @@ public interface CommentService {
     Comment createComment(Comment comment);
 
     List<Comment> getItemComments(Item item);
+
+    List<Comment> getItemsComments(List<Item> items);
 }
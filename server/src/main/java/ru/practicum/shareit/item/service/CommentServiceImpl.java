@@ -11,6 +11,7 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.CommentRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,4 +46,11 @@ public class CommentServiceImpl implements CommentService {
     public List<Comment> getItemComments(Item item) {
         return commentRepository.findByItemOrderByIdAsc(item);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Comment> getItemsComments(List<Item> items) {
+        if (items.isEmpty()) return new ArrayList<>();
+        return commentRepository.findByItemInOrderByIdAsc(items);
+    }
 }
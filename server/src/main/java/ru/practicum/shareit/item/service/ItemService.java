@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
@@ -12,6 +13,8 @@ public interface ItemService {
 
     Item getItem(Long id);
 
+    List<Item> getRequestsItems(List<ItemRequest> requests);
+
     Item createItem(Item item);
 
     Item updateItem(Item item);
@@ -3,11 +3,15 @@ package ru.practicum.shareit.item.service;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.error.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchStrategy;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.matching.RequestMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
@@ -19,6 +23,8 @@ import java.util.Optional;
 @Primary
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
+    private final ItemSearchStrategy itemSearchStrategy;
+    private final RequestMatcher requestMatcher;
 
     @Override
     @Transactional(readOnly = true)
@@ -32,7 +38,7 @@ public class ItemServiceImpl implements ItemService {
     public List<Item> findAvailableItems(User user, String search, Integer from, Integer size) {
         if (search.isEmpty() || search.isBlank()) return new ArrayList<>();
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        return itemRepository.findByAvailableTrueAndNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(search, page);
+        return itemSearchStrategy.search(search, page);
     }
 
     @Override
@@ -42,29 +48,50 @@ public class ItemServiceImpl implements ItemService {
         return optionalItem.orElseThrow(() -> new NotFoundException(String.format("Вещь с id=%d не найдена", id)));
     }
 
+    // Вещи, ответившие на запросы страницы, одним запросом по индексу ind_items_request
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> getRequestsItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) return new ArrayList<>();
+        return itemRepository.findByRequestInOrderByIdAsc(requests);
+    }
+
     @Override
     @Transactional
     public Item createItem(Item item) {
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        itemSearchStrategy.indexItem(savedItem);
+        requestMatcher.indexItem(savedItem);
+        return savedItem;
     }
 
     @Override
     @Transactional
     public Item updateItem(Item item) {
         Item oldItem = getItem(item.getId());
-        if (!item.getOwner().equals(oldItem.getOwner())) {
+        if (item.getOwner().getId() != oldItem.getOwner().getId()) {
             throw new NotFoundException(String.format("Вещь с id=%d не принадлежит пользователю %d", item.getId(), item.getOwner().getId()));
         }
-        return itemRepository.save(item);
+        // Изменения собраны по версии item.getVersion(): если вещь с тех пор изменилась, правка отклоняется с 409.
+        // Правку, закоммиченную после этого чтения, отклонит проверка версии в UPDATE
+        if (item.getVersion() != oldItem.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(Item.class, item.getId());
+        }
+        Item savedItem = itemRepository.save(item);
+        itemSearchStrategy.indexItem(savedItem);
+        requestMatcher.indexItem(savedItem);
+        return savedItem;
     }
 
     @Override
     @Transactional
     public void deleteItem(User user, Long id) {
         Item item = getItem(id);
-        if (!item.getOwner().equals(user)) {
+        if (item.getOwner().getId() != user.getId()) {
             throw new NotFoundException(String.format("Вещь с id=%d у пользователя %d не найдена", id, user.getId()));
         }
         itemRepository.deleteById(id);
+        itemSearchStrategy.removeItem(id);
+        requestMatcher.removeItem(id);
     }
 }
@@ -1,14 +1,19 @@
 package ru.practicum.shareit.item.storage;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByItemOrderByIdAsc(Item item);
 
+    @Query("select c from Comment c join fetch c.author where c.item in ?1 order by c.id asc")
+    List<Comment> findByItemInOrderByIdAsc(Collection<Item> items);
+
 }
@@ -2,19 +2,50 @@ package ru.practicum.shareit.item.storage;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByOwner(User owner, Pageable pageable);
 
+    List<Item> findByRequestInOrderByIdAsc(Collection<ItemRequest> requests);
+
+    // Блокировка строки вещи до конца транзакции: подтверждения бронирований одной вещи идут по очереди,
+    // а версия вещи, по которой клиенты правят вещь и по которой строится ETag, не меняется
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> lockById(long id);
+
+    List<Item> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    @Query("select i from Item i join fetch i.owner where i.available = true and i.id > ?1 order by i.id")
+    List<Item> findAvailableWithOwnerByIdGreaterThan(long id, Pageable pageable);
+
     @Query("select i from Item i " +
             "where i.available = true and " +
             "(upper(i.name) like upper(concat('%', ?1, '%')) or upper(i.description) like upper(concat('%', ?1, '%'))) ")
     List<Item> findByAvailableTrueAndNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(String search, Pageable pageable);
+
+    @Query(value = "select i.* from items i " +
+            "where i.available = true " +
+            "and i.search_vector @@ (plainto_tsquery('russian', ?1) || plainto_tsquery('english', ?1)) " +
+            "order by ts_rank(i.search_vector, " +
+            "plainto_tsquery('russian', ?1) || plainto_tsquery('english', ?1)) desc, i.id", nativeQuery = true)
+    List<Item> findAvailableByFullText(String search, Pageable pageable);
+
+    @Query(value = "select i.* from items i " +
+            "where i.available = true " +
+            "and (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%')) " +
+            "order by i.id", nativeQuery = true)
+    List<Item> findAvailableBySubstring(String search, Pageable pageable);
 }
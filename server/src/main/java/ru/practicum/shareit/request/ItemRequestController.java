@@ -3,6 +3,11 @@ package ru.practicum.shareit.request;
 import lombok.AllArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.error.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -11,6 +16,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,6 +27,7 @@ public class ItemRequestController {
     private final ItemRequestMapper itemRequestMapper;
     private final ItemRequestService itemRequestService;
     private final UserService userService;
+    private final ItemService itemService;
 
     @PostMapping
     public ItemRequestDto createRequest(@RequestBody final ItemRequestDto itemRequestDto,
@@ -33,18 +40,31 @@ public class ItemRequestController {
     @GetMapping
     public List<ItemRequestDto> getUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
         User user = userService.getUser(userId);
-        return itemRequestService.getUserRequests(user).stream()
-                .map(ItemRequestMapper::toDto)
-                .collect(Collectors.toList());
+        return toDtos(itemRequestService.getUserRequests(user));
     }
 
+    // beforeId сам задает начало страницы, поэтому смещение вместе с ним не принимается, а не отбрасывается молча
     @GetMapping("/all")
     public List<ItemRequestDto> getOtherRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @RequestParam(defaultValue = "0") Integer from,
-                                                @RequestParam(defaultValue = "10") Integer size) {
+                                                @RequestParam(required = false) Integer from,
+                                                @RequestParam(defaultValue = "10") Integer size,
+                                                @RequestParam(required = false) Long beforeId) {
+        if (beforeId != null && from != null) {
+            throw new ValidationException("Параметры from и beforeId нельзя передавать вместе");
+        }
         User user = userService.getUser(userId);
-        return itemRequestService.getOtherRequests(user, from, size).stream()
-                .map(ItemRequestMapper::toDto)
+        List<ItemRequest> requests = beforeId == null
+                ? itemRequestService.getOtherRequests(user, from == null ? 0 : from, size)
+                : itemRequestService.getOtherRequestsBefore(user, beforeId, size);
+        return toDtos(requests);
+    }
+
+    // Ответы на все запросы страницы загружаются одним запросом, а не отдельно для каждого запроса
+    private List<ItemRequestDto> toDtos(List<ItemRequest> requests) {
+        Map<Long, List<Item>> items = itemService.getRequestsItems(requests).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toDto(request, items.getOrDefault(request.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
@@ -55,4 +75,17 @@ public class ItemRequestController {
         ItemRequest itemRequest = itemRequestService.getRequest(id);
         return ItemRequestMapper.toDto(itemRequest);
     }
+
+    // Вещи, подобранные к запросу по словам описания; видны только автору запроса
+    @GetMapping("/{id}/suggestions")
+    public List<ItemDto> getSuggestions(@PathVariable final Long id,
+                                        @RequestHeader("X-Sharer-User-Id") Long userId,
+                                        @RequestParam(defaultValue = "0") Integer from,
+                                        @RequestParam(defaultValue = "10") Integer size) {
+        User user = userService.getUser(userId);
+        ItemRequest itemRequest = itemRequestService.getRequest(id);
+        return itemRequestService.getSuggestions(itemRequest, user, from, size).stream()
+                .map(ItemMapper::toDto)
+                .collect(Collectors.toList());
+    }
 }
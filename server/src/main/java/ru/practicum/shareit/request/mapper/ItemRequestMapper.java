@@ -26,7 +26,10 @@ public class ItemRequestMapper {
     public static ItemRequestDto toDto(ItemRequest itemRequest) {
         List<Item> items = itemRequest.getItems();
         if (items == null) items = new ArrayList<>();
+        return toDto(itemRequest, items);
+    }
 
+    public static ItemRequestDto toDto(ItemRequest itemRequest, List<Item> items) {
         List<ItemDto> itemResponseDtoList = items.stream()
                 .map(ItemMapper::toDto)
                 .collect(Collectors.toList());
@@ -0,0 +1,252 @@
+package ru.practicum.shareit.request.matching;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.util.InvertedIndex;
+import ru.practicum.shareit.util.Tokenizer;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Подбор вещей к запросам: слова описаний открытых запросов и слова доступных вещей лежат в двух инвертированных
+// индексах, поэтому новая вещь сопоставляется с уже открытыми запросами, а новый запрос - с уже существующими
+// вещами, без чтения таблиц. Вещь предлагается запросу, если в ней есть хотя бы половина слов его описания.
+// Запрос считается открытым shareit.matching.request-ttl с момента создания, затем он и его подсказки удаляются.
+// Индексы и подсказки хранятся в памяти, строятся в фоне при старте и обновляются после коммита
+// в ItemServiceImpl и ItemRequestServiceImpl
+@Component
+public class RequestMatcher {
+    private static final int BATCH_SIZE = 1000;
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int MIN_STEM_LENGTH = 4;
+    private static final String ENDINGS = "аеиоуыэюяьй";
+    private static final Set<String> STOP_WORDS = Set.of(
+            "нужен", "нужна", "нужно", "нужны", "хочу", "ищу", "для", "или", "без", "под", "над", "при",
+            "что", "кто", "где", "как", "это", "the", "and", "for", "with", "need", "want"
+    );
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final Duration requestTtl;
+    // Все изменения идут через один поток, поэтому применяются в порядке коммитов
+    private final Executor executor;
+    private final InvertedIndex requestIndex = new InvertedIndex();
+    private final InvertedIndex itemIndex = new InvertedIndex();
+    // Открытые запросы по возрастанию id, то есть в порядке создания: истекшие всегда в начале
+    private final NavigableMap<Long, RequestTerms> requests = new ConcurrentSkipListMap<>();
+    private final Map<Long, Long> itemOwners = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> suggestions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> itemRequests = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RequestMatcher(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository,
+                          @Value("${shareit.matching.request-ttl:30d}") Duration requestTtl) {
+        this(itemRequestRepository, itemRepository, requestTtl, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "request-matcher");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public RequestMatcher(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository,
+                          Duration requestTtl, Executor executor) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.requestTtl = requestTtl;
+        this.executor = executor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        executor.execute(() -> {
+            LocalDateTime openedAfter = LocalDateTime.now().minus(requestTtl);
+            long lastId = 0;
+            List<ItemRequest> requestBatch;
+            do {
+                requestBatch = itemRequestRepository.findWithRequestorByCreatedAfterAndIdGreaterThan(openedAfter,
+                        lastId, PageRequest.of(0, BATCH_SIZE));
+                for (ItemRequest request : requestBatch) {
+                    putRequest(request.getId(), request.getRequestor().getId(), request.getCreated(),
+                            terms(request.getDescription()));
+                    lastId = request.getId();
+                }
+            } while (requestBatch.size() == BATCH_SIZE);
+
+            lastId = 0;
+            List<Item> itemBatch;
+            do {
+                itemBatch = itemRepository.findAvailableWithOwnerByIdGreaterThan(lastId, PageRequest.of(0, BATCH_SIZE));
+                for (Item item : itemBatch) {
+                    putItem(item.getId(), item.getOwner().getId(), true, terms(item.getName(), item.getDescription()));
+                    lastId = item.getId();
+                }
+            } while (itemBatch.size() == BATCH_SIZE);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    public void indexRequest(ItemRequest request) {
+        long id = request.getId();
+        long requestorId = request.getRequestor().getId();
+        LocalDateTime created = request.getCreated() == null ? LocalDateTime.now() : request.getCreated();
+        List<String> terms = terms(request.getDescription());
+        afterCommit(() -> putRequest(id, requestorId, created, terms));
+    }
+
+    public void indexItem(Item item) {
+        long id = item.getId();
+        long ownerId = item.getOwner().getId();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        List<String> terms = terms(item.getName(), item.getDescription());
+        afterCommit(() -> putItem(id, ownerId, available, terms));
+    }
+
+    public void removeItem(long id) {
+        afterCommit(() -> dropItem(id));
+    }
+
+    // id подобранных открытому запросу вещей, сначала новые
+    public List<Long> getSuggestions(long requestId) {
+        Set<Long> items = suggestions.get(requestId);
+        return items == null ? List.of() : new ArrayList<>(items);
+    }
+
+    // Слова без коротких и служебных, с отброшенными гласными окончаниями: "дрель" и "дрели" дают "дрел"
+    static List<String> terms(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : Tokenizer.tokenize(texts)) {
+            if (token.length() < MIN_TOKEN_LENGTH || STOP_WORDS.contains(token)) continue;
+            int end = token.length();
+            while (end > MIN_STEM_LENGTH && ENDINGS.indexOf(token.charAt(end - 1)) >= 0) {
+                end--;
+            }
+            terms.add(token.substring(0, end));
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private void putRequest(long id, long requestorId, LocalDateTime created, List<String> terms) {
+        closeExpired();
+        if (terms.isEmpty() || !created.isAfter(LocalDateTime.now().minus(requestTtl))) return;
+        requestIndex.put(id, terms);
+        requests.put(id, new RequestTerms(requestorId, terms.size(), created));
+
+        countHits(itemIndex, terms).forEach((itemId, count) -> {
+            Long ownerId = itemOwners.get(itemId);
+            if (ownerId == null || ownerId == requestorId || count * 2 < terms.size()) return;
+            link(id, itemId);
+        });
+    }
+
+    private void putItem(long itemId, long ownerId, boolean available, List<String> terms) {
+        closeExpired();
+        dropItem(itemId);
+        if (!available || terms.isEmpty()) return;
+        itemIndex.put(itemId, terms);
+        itemOwners.put(itemId, ownerId);
+
+        countHits(requestIndex, terms).forEach((requestId, count) -> {
+            RequestTerms request = requests.get(requestId);
+            if (request == null || request.requestorId == ownerId || count * 2 < request.size) return;
+            link(requestId, itemId);
+        });
+    }
+
+    private void dropItem(long itemId) {
+        itemIndex.remove(itemId);
+        itemOwners.remove(itemId);
+        Set<Long> matched = itemRequests.remove(itemId);
+        if (matched == null) return;
+        for (long requestId : matched) {
+            Set<Long> items = suggestions.get(requestId);
+            if (items != null) items.remove(itemId);
+        }
+    }
+
+    private void closeExpired() {
+        LocalDateTime openedAfter = LocalDateTime.now().minus(requestTtl);
+        Map.Entry<Long, RequestTerms> oldest;
+        while ((oldest = requests.firstEntry()) != null && !oldest.getValue().created.isAfter(openedAfter)) {
+            long requestId = oldest.getKey();
+            requests.remove(requestId);
+            requestIndex.remove(requestId);
+            Set<Long> items = suggestions.remove(requestId);
+            if (items == null) continue;
+            for (long itemId : items) {
+                Set<Long> matched = itemRequests.get(itemId);
+                if (matched == null) continue;
+                matched.remove(requestId);
+                if (matched.isEmpty()) itemRequests.remove(itemId);
+            }
+        }
+    }
+
+    private void link(long requestId, long itemId) {
+        suggestions.computeIfAbsent(requestId, id -> new ConcurrentSkipListSet<>(Comparator.reverseOrder()))
+                .add(itemId);
+        itemRequests.computeIfAbsent(itemId, id -> new HashSet<>()).add(requestId);
+    }
+
+    private static Map<Long, Integer> countHits(InvertedIndex index, List<String> terms) {
+        Map<Long, Integer> hits = new HashMap<>();
+        for (String term : terms) {
+            for (long id : index.findAll(List.of(term))) {
+                hits.merge(id, 1, Integer::sum);
+            }
+        }
+        return hits;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            executor.execute(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                executor.execute(action);
+            }
+        });
+    }
+
+    @AllArgsConstructor
+    private static final class RequestTerms {
+        private final long requestorId;
+        private final int size;
+        private final LocalDateTime created;
+    }
+}
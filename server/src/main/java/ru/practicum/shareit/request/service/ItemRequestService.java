@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -12,5 +13,9 @@ public interface ItemRequestService {
 
     List<ItemRequest> getOtherRequests(User user, Integer from, Integer size);
 
+    List<ItemRequest> getOtherRequestsBefore(User user, Long beforeId, Integer size);
+
     ItemRequest getRequest(Long id);
+
+    List<Item> getSuggestions(ItemRequest itemRequest, User user, Integer from, Integer size);
 }
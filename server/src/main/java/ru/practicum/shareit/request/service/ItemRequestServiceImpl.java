@@ -2,27 +2,39 @@ package ru.practicum.shareit.request.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Primary;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.error.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.matching.RequestMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.OffsetPageRequest;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Primary
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final RequestMatcher requestMatcher;
 
     @Override
     @Transactional
     public ItemRequest createRequest(ItemRequest itemRequest) {
-        return itemRequestRepository.save(itemRequest);
+        ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
+        requestMatcher.indexRequest(savedRequest);
+        return savedRequest;
     }
 
     @Override
@@ -34,8 +46,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     @Transactional(readOnly = true)
     public List<ItemRequest> getOtherRequests(User user, Integer from, Integer size) {
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        return itemRequestRepository.findByRequestorNotOrderByIdDesc(user, page);
+        return itemRequestRepository.findByRequestorNotOrderByIdDesc(user, OffsetPageRequest.of(from, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequest> getOtherRequestsBefore(User user, Long beforeId, Integer size) {
+        return itemRequestRepository.findByRequestorNotAndIdBeforeOrderByIdDesc(user, beforeId,
+                OffsetPageRequest.of(0, size));
     }
 
     @Override
@@ -44,4 +62,24 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         Optional<ItemRequest> optionalRequest = itemRequestRepository.findById(id);
         return optionalRequest.orElseThrow(() -> new NotFoundException(String.format("Запрос с id=%d не найден", id)));
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> getSuggestions(ItemRequest itemRequest, User user, Integer from, Integer size) {
+        if (itemRequest.getRequestor().getId() != user.getId()) {
+            throw new NotFoundException(String.format("Запрос %d не относится к пользователю %d",
+                    itemRequest.getId(), user.getId()));
+        }
+        List<Long> ids = requestMatcher.getSuggestions(itemRequest.getId());
+        int fromIndex = Math.min(from, ids.size());
+        List<Long> pageIds = ids.subList(fromIndex, Math.min(fromIndex + size, ids.size()));
+        if (pageIds.isEmpty()) return new ArrayList<>();
+
+        Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 }
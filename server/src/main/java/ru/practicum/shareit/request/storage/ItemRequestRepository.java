@@ -7,12 +7,21 @@ import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findByRequestor(User requestor);
 
+    @Query("select r from ItemRequest r join fetch r.requestor where r.created > ?1 and r.id > ?2 order by r.id")
+    List<ItemRequest> findWithRequestorByCreatedAfterAndIdGreaterThan(LocalDateTime created, long id,
+                                                                      Pageable pageable);
+
     @Query("select r from ItemRequest r where r.requestor <> ?1 order by r.id DESC")
     List<ItemRequest> findByRequestorNotOrderByIdDesc(User requestor, Pageable pageable);
+
+    // Следующая страница ленты начинается сразу после последнего показанного id, без OFFSET
+    @Query("select r from ItemRequest r where r.requestor <> ?1 and r.id < ?2 order by r.id DESC")
+    List<ItemRequest> findByRequestorNotAndIdBeforeOrderByIdDesc(User requestor, long beforeId, Pageable pageable);
 }
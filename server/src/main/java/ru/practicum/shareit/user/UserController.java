@@ -1,12 +1,19 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.ExportTimeout;
+import ru.practicum.shareit.util.NdjsonWriter;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,13 +23,32 @@ import java.util.stream.Collectors;
 public class UserController {
     private final UserService userService;
     private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final ExportTimeout exportTimeout;
 
     @GetMapping
-    public List<UserDto> getUsers() {
-        List<User> users = userService.getUsers();
+    public List<UserDto> getUsers(@RequestParam(defaultValue = "0") Integer from,
+                                  @RequestParam(defaultValue = "100") Integer size,
+                                  @RequestParam(required = false) Long afterId) {
+        List<User> users = afterId == null
+                ? userService.getUsers(from, size)
+                : userService.getUsersAfter(afterId, size);
         return users.stream().map(UserMapper::toDto).collect(Collectors.toList());
     }
 
+    // Выгрузка всех пользователей построчно в NDJSON, пишется в потоке асинхронной обработки MVC.
+    // Тип содержимого задается явно: produces участвует только в выборе обработчика
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletRequest request) {
+        exportTimeout.extend(request);
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+            userService.exportUsers(user -> writer.write(UserMapper.toDto(user)));
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public UserDto getUser(@PathVariable final Long id) {
         User user = userService.getUser(id);
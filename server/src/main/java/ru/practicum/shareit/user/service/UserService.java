@@ -3,9 +3,14 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
-    List<User> getUsers();
+    List<User> getUsers(Integer from, Integer size);
+
+    List<User> getUsersAfter(Long afterId, Integer size);
+
+    void exportUsers(Consumer<User> consumer);
 
     User getUser(Long id);
 
@@ -1,33 +1,74 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.error.NotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
 
+import javax.persistence.EntityManager;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 @Primary
 public class UserServiceImpl implements UserService {
+    // Кэш настраивается через spring.cache.caffeine.spec (размер, TTL, статистика)
+    public static final String USERS_CACHE = "users";
+
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
 
     @Override
     @Transactional(readOnly = true)
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    public List<User> getUsers(Integer from, Integer size) {
+        return userRepository.findAllByOrderByIdAsc(OffsetPageRequest.of(from, size));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> getUsersAfter(Long afterId, Integer size) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, OffsetPageRequest.of(0, size));
+    }
+
+    // Переданный пользователь отсоединяется после обработки, поэтому память не растет с размером выгрузки
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamAllByOrderByIdAsc()) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    // В кэше лежит отдельная копия пользователя, и каждый вызов получает свою копию:
+    // изменения вызывающего кода не попадают в кэш и не видны другим запросам
     @Override
     @Transactional(readOnly = true)
     public User getUser(Long id) {
-        Optional<User> optionalUser = userRepository.findById(id);
-        return optionalUser.orElseThrow(() -> new NotFoundException(String.format("Пользователь с id=%d не найден", id)));
+        Cache cache = cacheManager.getCache(USERS_CACHE);
+        User cached = cache == null ? null : cache.get(id, User.class);
+        if (cached == null) {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException(String.format("Пользователь с id=%d не найден", id)));
+            cached = copyOf(user);
+            if (cache != null) {
+                cache.put(id, cached);
+            }
+        }
+        return copyOf(cached);
     }
 
     @Override
@@ -39,12 +80,38 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User updateUser(User user, Long id) {
+        evict(id);
         return userRepository.save(user);
     }
 
     @Override
     @Transactional
     public void deleteUser(Long id) {
+        evict(id);
         userRepository.deleteById(id);
     }
+
+    // Запись удаляется сразу, чтобы транзакция дальше читала свои изменения, и еще раз по ее завершении:
+    // копия, которую параллельный запрос успел положить в кэш до коммита, или данные отката там не остаются
+    private void evict(Long id) {
+        Cache cache = cacheManager.getCache(USERS_CACHE);
+        if (cache == null) return;
+        cache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(id);
+                }
+            });
+        }
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+// ETag по хэшу тела ответа и 304 Not Modified на If-None-Match для списков вещей и бронирований.
+// Карточки /items/{id} и /bookings/{id} ставят тег по версиям сущностей сами (VersionTag), фильтр его не заменяет
+@Configuration
+public class EtagConfig {
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/items", "/items/*", "/bookings", "/bookings/*");
+        registration.setName("etagFilter");
+        return registration;
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Потокобезопасное дерево полуинтервалов [start, end) с ключом id.
+// Декартово дерево по (start, id), в каждом узле хранится максимальный конец поддерева,
+// поэтому поиск пересечений пропускает поддеревья, целиком закончившиеся до начала запроса
+public class IntervalTree<V> {
+    private final Map<Long, Node<V>> nodes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node<V> root;
+
+    public void put(long id, LocalDateTime start, LocalDateTime end, V value) {
+        lock.writeLock().lock();
+        try {
+            removeNode(id);
+            Node<V> node = new Node<>(new Interval<>(id, start, end, value));
+            Node<V>[] parts = split(root, start, id);
+            root = merge(merge(parts[0], node), parts[1]);
+            nodes.put(id, node);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeNode(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Интервалы, пересекающиеся с [from, to), в порядке начала
+    public List<Interval<V>> findOverlapping(LocalDateTime from, LocalDateTime to) {
+        List<Interval<V>> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collect(root, from, to, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void removeNode(long id) {
+        Node<V> node = nodes.remove(id);
+        if (node == null) return;
+        LocalDateTime start = node.interval.start;
+        Node<V>[] left = split(root, start, id);
+        Node<V>[] right = split(left[1], start, id + 1);
+        root = merge(left[0], right[1]);
+    }
+
+    private static <V> void collect(Node<V> node, LocalDateTime from, LocalDateTime to, List<Interval<V>> result) {
+        if (node == null || !node.maxEnd.isAfter(from)) return;
+        collect(node.left, from, to, result);
+        if (!node.interval.start.isBefore(to)) return;
+        if (node.interval.end.isAfter(from)) {
+            result.add(node.interval);
+        }
+        collect(node.right, from, to, result);
+    }
+
+    // Делит дерево на узлы с ключом меньше (start, id) и все остальные
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] split(Node<V> node, LocalDateTime start, long id) {
+        if (node == null) return new Node[] {null, null};
+        if (node.isBefore(start, id)) {
+            Node<V>[] parts = split(node.right, start, id);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node<V>[] parts = split(node.left, start, id);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    private static <V> Node<V> merge(Node<V> left, Node<V> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Interval<V> {
+        private final long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final V value;
+    }
+
+    private static final class Node<V> {
+        private final Interval<V> interval;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private LocalDateTime maxEnd;
+        private Node<V> left;
+        private Node<V> right;
+
+        Node(Interval<V> interval) {
+            this.interval = interval;
+            this.maxEnd = interval.end;
+        }
+
+        boolean isBefore(LocalDateTime start, long id) {
+            int cmp = interval.start.compareTo(start);
+            return cmp < 0 || cmp == 0 && interval.id < id;
+        }
+
+        void update() {
+            maxEnd = interval.end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) maxEnd = left.maxEnd;
+            if (right != null && right.maxEnd.isAfter(maxEnd)) maxEnd = right.maxEnd;
+        }
+    }
+}
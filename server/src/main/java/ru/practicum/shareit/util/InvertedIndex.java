@@ -0,0 +1,284 @@
+package ru.practicum.shareit.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Потокобезопасный инвертированный индекс: токен -> отсортированный массив id документов.
+// Поиск пересекает списки id, начиная с самого короткого, без обращения к БД
+public class InvertedIndex {
+    private static final long[] EMPTY = new long[0];
+    // при таком соотношении длин пересечение идет бинарным поиском по длинному списку
+    private static final int GALLOP_RATIO = 16;
+    // более короткий префикс ищется как целое слово: "в" или "по" раскрылись бы в большую часть словаря
+    public static final int MIN_PREFIX_LENGTH = 3;
+    // префикс, с которого начинается больше слов словаря, не раскрывается в объединение их списков
+    public static final int MAX_PREFIX_EXPANSION = 256;
+
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long id, Collection<String> tokens) {
+        Set<String> unique = new HashSet<>(tokens);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            if (unique.isEmpty()) return;
+            for (String token : unique) {
+                postings.computeIfAbsent(token, t -> new Postings()).add(id);
+            }
+            documents.put(id, unique);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // id документов, содержащих все токены
+    public long[] findAll(Collection<String> tokens) {
+        if (tokens.isEmpty()) return EMPTY;
+        lock.readLock().lock();
+        try {
+            List<long[]> lists = new ArrayList<>();
+            for (String token : tokens) {
+                Postings list = postings.get(token);
+                if (list == null) return EMPTY;
+                lists.add(list.toArray());
+            }
+            return intersectAll(lists);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // id документов, в которых для каждого префикса есть начинающийся с него токен. Префикс короче
+    // MIN_PREFIX_LENGTH совпадает только с таким же токеном. Префикс, раскрывающийся больше чем
+    // в MAX_PREFIX_EXPANSION токенов, не объединяется, а проверяется по словам документов, уже найденных
+    // по остальным префиксам; если так широки все префиксы, бросается PrefixTooBroadException.
+    // Время под блокировкой ограничено, а результат всегда полный
+    public long[] findAllByPrefix(Collection<String> prefixes) {
+        if (prefixes.isEmpty()) return EMPTY;
+        lock.readLock().lock();
+        try {
+            List<long[]> lists = new ArrayList<>();
+            List<String> broad = new ArrayList<>();
+            for (String prefix : prefixes) {
+                List<Postings> expanded = expand(prefix);
+                if (expanded == null) {
+                    broad.add(prefix);
+                    continue;
+                }
+                long[] ids = union(expanded);
+                if (ids.length == 0) return EMPTY;
+                lists.add(ids);
+            }
+            if (lists.isEmpty()) {
+                throw new PrefixTooBroadException(broad);
+            }
+            long[] result = intersectAll(lists);
+            return broad.isEmpty() ? result : filterByPrefixes(result, broad);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // id документов, содержащих хотя бы один из токенов
+    public long[] findAny(Collection<String> tokens) {
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String token : tokens) {
+                Postings list = postings.get(token);
+                if (list != null) lists.add(list);
+            }
+            return union(lists);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Списки токенов, начинающихся с префикса, или null, если их больше MAX_PREFIX_EXPANSION
+    private List<Postings> expand(String prefix) {
+        if (prefix.length() < MIN_PREFIX_LENGTH) {
+            Postings list = postings.get(prefix);
+            return list == null ? List.of() : List.of(list);
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (Postings list : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (lists.size() == MAX_PREFIX_EXPANSION) return null;
+            lists.add(list);
+        }
+        return lists;
+    }
+
+    private long[] filterByPrefixes(long[] ids, List<String> prefixes) {
+        long[] result = new long[ids.length];
+        int count = 0;
+        for (long id : ids) {
+            Set<String> tokens = documents.get(id);
+            if (prefixes.stream().allMatch(prefix -> tokens.stream().anyMatch(token -> token.startsWith(prefix)))) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void removeDocument(long id) {
+        Set<String> tokens = documents.remove(id);
+        if (tokens == null) return;
+        for (String token : tokens) {
+            Postings list = postings.get(token);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static long[] union(Collection<Postings> lists) {
+        if (lists.isEmpty()) return EMPTY;
+        if (lists.size() == 1) return lists.iterator().next().toArray();
+        int total = 0;
+        for (Postings list : lists) {
+            total += list.size;
+        }
+        long[] result = new long[total];
+        int pos = 0;
+        for (Postings list : lists) {
+            System.arraycopy(list.ids, 0, result, pos, list.size);
+            pos += list.size;
+        }
+        Arrays.sort(result);
+        int unique = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[unique - 1]) {
+                result[unique++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, unique);
+    }
+
+    private static long[] intersectAll(List<long[]> lists) {
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        long[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static long[] intersect(long[] small, long[] large) {
+        long[] result = new long[small.length];
+        int count = 0;
+        if ((long) small.length * GALLOP_RATIO < large.length) {
+            int from = 0;
+            for (long id : small) {
+                int pos = Arrays.binarySearch(large, from, large.length, id);
+                if (pos >= 0) {
+                    result[count++] = id;
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+                if (from >= large.length) break;
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < small.length && j < large.length) {
+                if (small[i] < large[j]) {
+                    i++;
+                } else if (small[i] > large[j]) {
+                    j++;
+                } else {
+                    result[count++] = small[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public static final class PrefixTooBroadException extends RuntimeException {
+        public PrefixTooBroadException(List<String> prefixes) {
+            super(String.format("Слишком общий запрос %s, уточните его", String.join(" ", prefixes)));
+        }
+    }
+
+    // Отсортированный список id с запасом емкости, чтобы добавление в конец не копировало массив
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return false;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+// Пишет объекты в поток по одному JSON на строку (application/x-ndjson).
+// Буфер сбрасывается каждые FLUSH_EVERY строк, поэтому клиент получает выгрузку частями
+public class NdjsonWriter {
+    private static final int FLUSH_EVERY = 100;
+
+    private final OutputStream out;
+    private final ObjectWriter writer;
+    private int count;
+
+    public NdjsonWriter(OutputStream out, ObjectMapper mapper) {
+        this.out = out;
+        this.writer = mapper.writer();
+    }
+
+    public void write(Object value) {
+        try {
+            out.write(writer.writeValueAsBytes(value));
+            out.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Разбивает текст на слова в нижнем регистре для InvertedIndex
+public class Tokenizer {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) continue;
+            String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+            for (String token : SEPARATOR.split(normalized)) {
+                if (!token.isEmpty()) tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+}
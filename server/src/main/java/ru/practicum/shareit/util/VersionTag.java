@@ -0,0 +1,18 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Слабый ETag ответа, собранный из версий сущностей, а не из тела: If-None-Match проверяется до маппинга
+// и сериализации. Данные без версии (имена пользователей во вложенных DTO) входят в тег своими значениями
+public class VersionTag {
+    private VersionTag() {
+    }
+
+    public static String of(Object... parts) {
+        String value = Arrays.deepToString(parts);
+        return "W/\"" + DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
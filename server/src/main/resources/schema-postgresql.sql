@@ -0,0 +1,17 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Скрипт выполняется при каждом старте, а ADD CONSTRAINT IF NOT EXISTS в Postgres нет, поэтому ограничение
+-- добавляется только при его отсутствии. Тело DO в одинарных кавычках, а не в $$: разделитель скриптов Spring
+-- учитывает только кавычки, и точки с запятой внутри блока не разбивают его на отдельные команды.
+-- Первое создание ограничения завершится ошибкой, если в таблице уже есть пересекающиеся подтвержденные
+-- бронирования одной вещи: перед обновлением такие строки нужно найти и исправить вручную
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_bookings_item_approved_period'') THEN
+        ALTER TABLE bookings
+            ADD CONSTRAINT ex_bookings_item_approved_period
+                EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+                WHERE (status = ''APPROVED'');
+    END IF;
+END
+';
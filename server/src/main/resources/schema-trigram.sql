@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS ind_items_name_trgm
+    ON items
+        USING GIN (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ind_items_description_trgm
+    ON items
+        USING GIN (description gin_trgm_ops);
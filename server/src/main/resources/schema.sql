@@ -19,14 +19,19 @@ CREATE TABLE IF NOT EXISTS items (
   description VARCHAR(4000) NOT NULL,
   available BOOLEAN NOT NULL,
   owner_id BIGINT NOT NULL,
-  request_id BIGINT
+  request_id BIGINT,
+  version BIGINT NOT NULL DEFAULT 0
 );
+-- Для баз, созданных до появления версий и составных индексов: CREATE TABLE IF NOT EXISTS их не меняет
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+DROP INDEX IF EXISTS ind_items_user;
 CREATE INDEX IF NOT EXISTS ind_items_request
     ON items
         (request_id ASC NULLS LAST);
-CREATE INDEX IF NOT EXISTS ind_items_user
+-- Выборки бронирований владельца (b.item.owner = ?1) идут от вещей владельца к ind_bookings_item_start
+CREATE INDEX IF NOT EXISTS ind_items_owner
     ON items
-        (owner_id ASC NULLS LAST);
+        (owner_id ASC NULLS LAST, id);
 
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -48,14 +53,21 @@ CREATE TABLE IF NOT EXISTS bookings (
   end_date TIMESTAMP WITHOUT TIME ZONE,
   item_id BIGINT NOT NULL,
   booker_id BIGINT NOT NULL,
-  status VARCHAR(60) DEFAULT 'WAITING'
+  status VARCHAR(60) DEFAULT 'WAITING',
+  version BIGINT NOT NULL DEFAULT 0
 );
-CREATE INDEX IF NOT EXISTS ind_bookings_item
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+DROP INDEX IF EXISTS ind_bookings_item;
+DROP INDEX IF EXISTS ind_bookings_user;
+CREATE INDEX IF NOT EXISTS ind_bookings_item_start
     ON bookings
-        (item_id ASC NULLS LAST);
-CREATE INDEX IF NOT EXISTS ind_bookings_user
+        (item_id ASC NULLS LAST, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ind_bookings_item_period
+    ON bookings
+        (item_id ASC NULLS LAST, status, start_date DESC, end_date);
+CREATE INDEX IF NOT EXISTS ind_bookings_user_start
     ON bookings
-        (booker_id ASC NULLS LAST);
+        (booker_id ASC NULLS LAST, start_date DESC, id DESC);
 
 CREATE TABLE IF NOT EXISTS requests (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
+import ru.practicum.shareit.booking.model.AvailabilityStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingRequestStates;
@@ -15,6 +17,7 @@ import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -168,10 +171,49 @@ public class IntBookingServiceTest {
     }
 
     @Test
-    void getItemBookings() {
-        Item item1 = sourceItems.get(0);
-        List<Booking> targetBookings = service.getItemBookings(item1);
-        assertThat(targetBookings, hasSize(1));
+    void exportUserItemsBookings() {
+        User user2 = sourceUsers.get(1);
+        List<Long> ids = new ArrayList<>();
+        service.exportUserItemsBookings(user2, booking -> ids.add(booking.getId()));
+        assertThat(ids, hasSize(3));
+        assertThat(ids.get(0), equalTo(sourceBookings.get(3).getId()));
+        assertThat(ids, not(hasItem(sourceBookings.get(0).getId())));
+    }
+
+    @Test
+    void getLastAndNextBookings() {
+        Booking laterBooking = Booking.builder()
+                .start(LocalDateTime.now().plusDays(3))
+                .end(LocalDateTime.now().plusDays(4))
+                .status(BookingStatus.APPROVED)
+                .booker(sourceUsers.get(0))
+                .item(sourceItems.get(3))
+                .build();
+        em.persist(laterBooking);
+        em.flush();
+
+        List<Booking> targetBookings = service.getLastAndNextBookings(sourceItems);
+        assertThat(targetBookings, hasSize(3));
+        assertThat(targetBookings.get(0).getId(), equalTo(sourceBookings.get(3).getId()));
+        assertThat(targetBookings.get(1).getId(), equalTo(sourceBookings.get(1).getId()));
+
+        assertThat(service.getLastAndNextBookings(List.of()), hasSize(0));
     }
 
+    @Test
+    void getItemAvailability() {
+        Booking booking4 = sourceBookings.get(3);
+        Item item4 = sourceItems.get(3);
+        LocalDateTime from = booking4.getStart().minusDays(1);
+        LocalDateTime to = booking4.getEnd().plusDays(1);
+
+        List<AvailabilityInterval> intervals = service.getItemAvailability(item4, from, to);
+        assertThat(intervals, hasSize(3));
+        assertThat(intervals.get(0).getStatus(), equalTo(AvailabilityStatus.FREE));
+        assertThat(intervals.get(1).getStart(), equalTo(booking4.getStart()));
+        assertThat(intervals.get(1).getEnd(), equalTo(booking4.getEnd()));
+        assertThat(intervals.get(1).getStatus(), equalTo(AvailabilityStatus.WAITING));
+        assertThat(intervals.get(2).getEnd(), equalTo(to));
+        assertThat(intervals.get(2).getStatus(), equalTo(AvailabilityStatus.FREE));
+    }
 }
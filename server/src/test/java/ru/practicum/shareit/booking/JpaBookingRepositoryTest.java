@@ -4,20 +4,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.OffsetPageRequest;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 
 @DataJpaTest
 public class JpaBookingRepositoryTest {
+    // Даты без долей секунды: БД хранит время с меньшей точностью, чем LocalDateTime.now(),
+    // и граница курсора из сохраненного в памяти значения иначе не совпадает с записанной
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
     @Autowired
     private TestEntityManager em;
     @Autowired
@@ -52,29 +60,28 @@ public class JpaBookingRepositoryTest {
     );
     private final List<Booking> sourceBookings = List.of(
             Booking.builder()
-                    .start(LocalDateTime.now().plusMinutes(1))
-                    .end(LocalDateTime.now().plusDays(2))
+                    .start(NOW.plusMinutes(1))
+                    .end(NOW.plusDays(2))
                     .status(BookingStatus.WAITING)
                     .build(),
             Booking.builder()
-                    .start(LocalDateTime.now().plusMinutes(1))
-                    .end(LocalDateTime.now().plusDays(1))
+                    .start(NOW.plusMinutes(1))
+                    .end(NOW.plusDays(1))
                     .status(BookingStatus.WAITING)
                     .build(),
             Booking.builder()
-                    .start(LocalDateTime.now().plusMinutes(1))
-                    .end(LocalDateTime.now().plusMinutes(2))
+                    .start(NOW.plusMinutes(1))
+                    .end(NOW.plusMinutes(2))
                     .status(BookingStatus.REJECTED)
                     .build(),
             Booking.builder()
-                    .start(LocalDateTime.now().plusDays(1))
-                    .end(LocalDateTime.now().plusDays(2))
+                    .start(NOW.plusDays(1))
+                    .end(NOW.plusDays(2))
                     .status(BookingStatus.WAITING)
                     .build()
     );
 
-    @Test
-    public void existsByItemAndBookerAndStatusNotAndStartLessThanEqual() {
+    private void persistEntities() {
         for (User user : sourceUsers) {
             em.persist(user);
         }
@@ -91,10 +98,6 @@ public class JpaBookingRepositoryTest {
             em.persist(item);
         }
         em.flush();
-        Item item1 = sourceItems.get(0);
-        Item item2 = sourceItems.get(1);
-        Item item3 = sourceItems.get(2);
-        Item item4 = sourceItems.get(3);
 
         for (int i = 0; i < sourceBookings.size(); i++) {
             Booking booking = sourceBookings.get(i);
@@ -117,6 +120,17 @@ public class JpaBookingRepositoryTest {
             em.persist(booking);
         }
         em.flush();
+    }
+
+    @Test
+    public void existsByItemAndBookerAndStatusNotAndStartLessThanEqual() {
+        persistEntities();
+        User user1 = sourceUsers.get(0);
+        User user2 = sourceUsers.get(1);
+        Item item1 = sourceItems.get(0);
+        Item item2 = sourceItems.get(1);
+        Item item3 = sourceItems.get(2);
+        Item item4 = sourceItems.get(3);
 
         boolean exist = repository.existsByItemAndBookerAndStatusNotAndStartLessThanEqual(item1, user1,
                 LocalDateTime.now().plusMinutes(10));
@@ -142,4 +156,81 @@ public class JpaBookingRepositoryTest {
                 LocalDateTime.now().plusMinutes(10));
         assertThat(exist, equalTo(true));
     }
+
+    @Test
+    public void versionIncrementsOnUpdate() {
+        persistEntities();
+        Booking booking = sourceBookings.get(0);
+        assertThat(booking.getVersion(), equalTo(0L));
+
+        booking.setStatus(BookingStatus.APPROVED);
+        repository.saveAndFlush(booking);
+
+        assertThat(booking.getVersion(), equalTo(1L));
+    }
+
+    @Test
+    public void findByStatePaged() {
+        persistEntities();
+        User user1 = sourceUsers.get(0);
+        User user2 = sourceUsers.get(1);
+        Sort sort = Sort.by(Sort.Direction.DESC, "start", "id");
+
+        List<Booking> bookings = repository.findByBooker(user1, OffsetPageRequest.of(0, 10, sort));
+        assertThat(bookings, hasSize(3));
+        assertThat(bookings.get(0).getId(), equalTo(sourceBookings.get(3).getId()));
+
+        bookings = repository.findByBooker(user1, OffsetPageRequest.of(1, 1, sort));
+        assertThat(bookings, hasSize(1));
+        assertThat(bookings.get(0).getId(), equalTo(sourceBookings.get(2).getId()));
+
+        bookings = repository.findByBookerAndStartAfter(user1, LocalDateTime.now().plusHours(1),
+                OffsetPageRequest.of(0, 10, sort));
+        assertThat(bookings, hasSize(1));
+        assertThat(bookings.get(0).getId(), equalTo(sourceBookings.get(3).getId()));
+
+        bookings = repository.findByBookerAndStatus(user1, BookingStatus.REJECTED, OffsetPageRequest.of(0, 10, sort));
+        assertThat(bookings, hasSize(1));
+
+        bookings = repository.findByItem_Owner(user2, OffsetPageRequest.of(0, 10, sort));
+        assertThat(bookings, hasSize(3));
+
+        bookings = repository.findByItem_OwnerAndStatus(user2, BookingStatus.WAITING,
+                OffsetPageRequest.of(1, 10, sort));
+        assertThat(bookings, hasSize(1));
+
+        bookings = repository.findByItem_OwnerAndStartBeforeAndEndAfter(user1, LocalDateTime.now().plusMinutes(10),
+                LocalDateTime.now().plusMinutes(10), OffsetPageRequest.of(0, 10, sort));
+        assertThat(bookings, hasSize(1));
+        assertThat(bookings.get(0).getId(), equalTo(sourceBookings.get(0).getId()));
+    }
+
+    @Test
+    public void findByKeyset() {
+        persistEntities();
+        User user1 = sourceUsers.get(0);
+        User user2 = sourceUsers.get(1);
+        Booking last = sourceBookings.get(3);
+
+        List<Booking> bookings = repository.findByBookerBefore(user1, last.getStart(), last.getId(),
+                OffsetPageRequest.of(0, 10));
+        assertThat(bookings, hasSize(2));
+        assertThat(bookings.get(0).getId(), equalTo(sourceBookings.get(2).getId()));
+
+        bookings = repository.findByBookerBefore(user1, last.getStart(), last.getId(), OffsetPageRequest.of(0, 1));
+        assertThat(bookings, hasSize(1));
+
+        bookings = repository.findByBookerAndStatusBefore(user1, last.getStart(), last.getId(),
+                BookingStatus.WAITING, OffsetPageRequest.of(0, 10));
+        assertThat(bookings, hasSize(1));
+        assertThat(bookings.get(0).getId(), equalTo(sourceBookings.get(1).getId()));
+
+        bookings = repository.findFutureByItem_OwnerBefore(user2, last.getStart(), last.getId(),
+                LocalDateTime.now(), OffsetPageRequest.of(0, 10));
+        assertThat(bookings, hasSize(2));
+
+        bookings = repository.findPastByItem_OwnerBefore(user2, last.getStart(), last.getId(),
+                LocalDateTime.now(), OffsetPageRequest.of(0, 10));
+        assertThat(bookings, hasSize(0));
+    }
 }
@@ -3,39 +3,51 @@ package ru.practicum.shareit.booking;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingCursor;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.ExportTimeout;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.Matchers.in;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.GlobalProperties.DATE_FORMAT;
 
 @WebMvcTest(controllers = BookingController.class)
-@Import(BookingMapper.class)
+@Import({BookingMapper.class, ExportTimeout.class})
 public class RestBookingControllerTest {
     @MockBean
     private BookingService bookingService;
@@ -247,8 +259,18 @@ public class RestBookingControllerTest {
         when(bookingService.getBooking(anyLong(), any()))
                 .thenReturn(sourceBookings.get(0));
 
-        mvc.perform(get("/bookings/1").header("X-Sharer-User-Id", 1))
+        String eTag = mvc.perform(get("/bookings/1").header("X-Sharer-User-Id", 1))
                 .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/bookings/1").header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        sourceBookings.get(0).setVersion(sourceBookings.get(0).getVersion() + 1);
+        mvc.perform(get("/bookings/1").header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
                 .andExpect(status().isOk());
     }
 
@@ -289,4 +311,64 @@ public class RestBookingControllerTest {
                 .andExpect(jsonPath("$[2].booker.id", is(user3.getId()), Long.class))
                 .andExpect(jsonPath("$[2].status", is(sourceBookings.get(2).getStatus().name())));
     }
+
+    @Test
+    void exportBookingsUserItems() throws Exception {
+        doAnswer(inv -> {
+            Consumer<Booking> consumer = inv.getArgument(1);
+            sourceBookings.forEach(consumer);
+            return null;
+        }).when(bookingService).exportUserItemsBookings(eq(user1), any());
+
+        MvcResult result = mvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length, equalTo(3));
+        BookingDto last = mapper.readValue(lines[2], BookingDto.class);
+        assertThat(last.getId(), equalTo(sourceBookings.get(2).getId()));
+        assertThat(last.getBooker().getId(), equalTo(user3.getId()));
+    }
+
+    @Test
+    void getUserBookingsByCursor() throws Exception {
+        when(bookingService.getUserBooking(any(), any(), anyInt(), anyInt()))
+                .thenReturn(sourceBookings);
+        when(bookingService.getUserBooking(any(), any(), ArgumentMatchers.any(BookingCursor.class), anyInt()))
+                .thenReturn(sourceBookings.subList(2, 3));
+
+        Booking last = sourceBookings.get(2);
+        String cursor = BookingCursor.of(last).encode();
+        mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1)
+                        .param("size", "3"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, cursor));
+
+        mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1)
+                        .param("size", "3")
+                        .param("cursor", cursor))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+
+        mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1)
+                        .param("cursor", "bad cursor"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", 1)
+                        .param("from", "3")
+                        .param("cursor", cursor))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Параметры from и cursor нельзя передавать вместе")));
+    }
 }
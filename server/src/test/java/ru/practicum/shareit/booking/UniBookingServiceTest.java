@@ -5,22 +5,32 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.AdditionalAnswers;
 import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingRequestStates;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.booking.service.ItemCalendar;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.error.ConflictException;
 import ru.practicum.shareit.error.NotFoundException;
 import ru.practicum.shareit.error.ValidationException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.OffsetPageRequest;
 
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +38,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class UniBookingServiceTest {
     private BookingService bookingService;
+    private BookingRepository bookingRepository;
     private final Map<Long, User> users = Map.of(
             1L, User.builder().id(1).name("test1").email("test1@test.ru").build(),
             2L, User.builder().id(2).name("test2").email("test2@test.ru").build(),
@@ -101,32 +112,68 @@ public class UniBookingServiceTest {
 
     @BeforeEach
     public void createEntities() {
-        BookingRepository bookingRepository = Mockito.mock(BookingRepository.class);
+        bookingRepository = Mockito.mock(BookingRepository.class);
         Mockito.when(bookingRepository.findById(1L))
                 .thenReturn(Optional.of(bookings.get(1L)));
         Mockito.when(bookingRepository.findById(2L))
                 .thenReturn(Optional.of(bookings.get(2L)));
         Mockito.when(bookingRepository.findById(3L))
                 .thenReturn(Optional.empty());
-        Mockito.when(bookingRepository.save(any(Booking.class)))
+        Mockito.when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .then(AdditionalAnswers.returnsFirstArg());
 
-        Mockito.when(bookingRepository.findByBooker(any(User.class)))
-                .thenAnswer(user -> bookings.values().stream()
-                        .filter(booking -> booking.getBooker().equals(user.getArgument(0)))
-                        .collect(Collectors.toList()));
+        Mockito.when(bookingRepository.findByBooker(any(User.class), any(Pageable.class)))
+                .thenAnswer(inv -> page(bookings.values().stream()
+                        .filter(booking -> booking.getBooker().equals(inv.getArgument(0))), inv.getArgument(1)));
+        Mockito.when(bookingRepository.findByBookerAndStartBeforeAndEndAfter(any(User.class),
+                        any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+                .thenAnswer(inv -> page(bookings.values().stream()
+                        .filter(booking -> booking.getBooker().equals(inv.getArgument(0)))
+                        .filter(booking -> booking.getStart().isBefore(inv.getArgument(1))
+                                && booking.getEnd().isAfter(inv.getArgument(2))), inv.getArgument(3)));
+        Mockito.when(bookingRepository.findByBookerAndEndBefore(any(User.class), any(LocalDateTime.class),
+                        any(Pageable.class)))
+                .thenAnswer(inv -> page(bookings.values().stream()
+                        .filter(booking -> booking.getBooker().equals(inv.getArgument(0)))
+                        .filter(booking -> booking.getEnd().isBefore(inv.getArgument(1))), inv.getArgument(2)));
+        Mockito.when(bookingRepository.findByBookerAndStartAfter(any(User.class), any(LocalDateTime.class),
+                        any(Pageable.class)))
+                .thenAnswer(inv -> page(bookings.values().stream()
+                        .filter(booking -> booking.getBooker().equals(inv.getArgument(0)))
+                        .filter(booking -> booking.getStart().isAfter(inv.getArgument(1))), inv.getArgument(2)));
+        Mockito.when(bookingRepository.findByBookerAndStatus(any(User.class), any(BookingStatus.class),
+                        any(Pageable.class)))
+                .thenAnswer(inv -> page(bookings.values().stream()
+                        .filter(booking -> booking.getBooker().equals(inv.getArgument(0)))
+                        .filter(booking -> booking.getStatus().equals(inv.getArgument(1))), inv.getArgument(2)));
 
-        Mockito.when(bookingRepository.findByItem_Owner(any(User.class)))
-                .thenAnswer(user -> bookings.values().stream()
-                        .filter(booking -> booking.getItem().getOwner().equals(user.getArgument(0)))
-                        .collect(Collectors.toList()));
+        Mockito.when(bookingRepository.findByItem_Owner(any(User.class), any(Pageable.class)))
+                .thenAnswer(inv -> page(bookings.values().stream()
+                        .filter(booking -> booking.getItem().getOwner().equals(inv.getArgument(0))),
+                        inv.getArgument(1)));
 
-        Mockito.when(bookingRepository.findByItem(any(Item.class)))
-                .thenAnswer(item -> bookings.values().stream()
-                        .filter(booking -> booking.getItem().equals(item.getArgument(0)))
-                        .collect(Collectors.toList()));
+        Mockito.when(bookingRepository.findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(any(Item.class),
+                        any(BookingStatus.class), any(LocalDateTime.class)))
+                .thenAnswer(inv -> page(bookings.values().stream()
+                        .filter(booking -> booking.getItem().equals(inv.getArgument(0)))
+                        .filter(booking -> booking.getStatus().equals(inv.getArgument(1)))
+                        .filter(booking -> booking.getStart().isBefore(inv.getArgument(2))),
+                        OffsetPageRequest.of(0, 1)).stream().findFirst());
 
-        bookingService = new BookingServiceImpl(bookingRepository);
+        ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+
+        ItemCalendar itemCalendar = Mockito.mock(ItemCalendar.class);
+
+        bookingService = new BookingServiceImpl(bookingRepository, itemRepository, itemCalendar,
+                Mockito.mock(EntityManager.class));
+    }
+
+    private static List<Booking> page(Stream<Booking> bookings, Pageable pageable) {
+        return bookings
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
     }
 
     @Test
@@ -153,6 +200,59 @@ public class UniBookingServiceTest {
         Assertions.assertEquals("Нельзя изменить статус уже подтвержденному бронированию", exception3.getMessage());
     }
 
+    @Test
+    public void createBookingOverlapsApproved() {
+        bookingService.approveBooking(1L, users.get(1L), true);
+
+        Booking overlapping = Booking.builder()
+                .start(LocalDateTime.of(2028, 1, 1, 10, 0))
+                .end(LocalDateTime.of(2030, 1, 1, 10, 0))
+                .booker(users.get(3L))
+                .item(items.get(1L))
+                .status(BookingStatus.WAITING)
+                .build();
+        final ConflictException exception = Assertions.assertThrows(
+                ConflictException.class,
+                () -> bookingService.createBooking(overlapping));
+        Assertions.assertEquals("Вещь 1 уже забронирована на этот период", exception.getMessage());
+
+        Booking after = Booking.builder()
+                .start(LocalDateTime.of(2029, 1, 2, 10, 0))
+                .end(LocalDateTime.of(2029, 1, 3, 10, 0))
+                .booker(users.get(3L))
+                .item(items.get(1L))
+                .status(BookingStatus.WAITING)
+                .build();
+        assertThat(bookingService.createBooking(after).getStart(), equalTo(after.getStart()));
+    }
+
+    @Test
+    public void createBookingViolatesConstraint() {
+        Booking booking = Booking.builder()
+                .start(LocalDateTime.of(2031, 1, 1, 10, 0))
+                .end(LocalDateTime.of(2031, 1, 2, 10, 0))
+                .booker(users.get(3L))
+                .item(items.get(1L))
+                .status(BookingStatus.WAITING)
+                .build();
+
+        Mockito.when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("conflicting key value violates exclusion constraint "
+                                + "\"ex_bookings_item_approved_period\"", "23P01")));
+        final ConflictException exception = Assertions.assertThrows(
+                ConflictException.class,
+                () -> bookingService.createBooking(booking));
+        Assertions.assertEquals("Вещь 1 уже забронирована на этот период", exception.getMessage());
+
+        Mockito.when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("null value in column \"booker_id\" violates not-null constraint", "23502")));
+        Assertions.assertThrows(
+                DataIntegrityViolationException.class,
+                () -> bookingService.createBooking(booking));
+    }
+
     @Test
     public void getBooking() {
         final NotFoundException exception1 = Assertions.assertThrows(
@@ -218,11 +318,4 @@ public class UniBookingServiceTest {
         assertThat(bs.size(), equalTo(2));
         assertThat(bs.get(0).getId(), equalTo(2L));
     }
-
-    @Test
-    public void getItemBookings() {
-        List<Booking> bs = bookingService.getItemBookings(items.get(1L));
-        assertThat(bs.size(), equalTo(1));
-        assertThat(bs.get(0).getItem().getId(), equalTo(1L));
-    }
 }
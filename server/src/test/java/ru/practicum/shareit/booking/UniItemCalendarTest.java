@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
+import ru.practicum.shareit.booking.model.AvailabilityStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.ItemCalendar;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class UniItemCalendarTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final Item item = Item.builder().id(1).name("test item 1").description("test item 1").available(true).build();
+    private BookingRepository bookingRepository;
+    private ItemCalendar calendar;
+    private MutableClock clock;
+
+    @BeforeEach
+    public void createCalendar() {
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        Mockito.when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(1L), anyCollection(),
+                        any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        booking(1, 10, 14, BookingStatus.WAITING),
+                        booking(2, 12, 16, BookingStatus.APPROVED),
+                        booking(3, 20, 22, BookingStatus.WAITING)));
+        clock = new MutableClock(DAY.minusHours(1));
+        calendar = new ItemCalendar(bookingRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), clock);
+    }
+
+    private Booking booking(long id, int startHour, int endHour, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .start(DAY.plusHours(startHour))
+                .end(DAY.plusHours(endHour))
+                .item(item)
+                .status(status)
+                .build();
+    }
+
+    private static void assertInterval(AvailabilityInterval interval, int startHour, int endHour,
+                                       AvailabilityStatus status) {
+        assertThat(interval.getStart(), equalTo(DAY.plusHours(startHour)));
+        assertThat(interval.getEnd(), equalTo(DAY.plusHours(endHour)));
+        assertThat(interval.getStatus(), equalTo(status));
+    }
+
+    @Test
+    public void getAvailability() {
+        List<AvailabilityInterval> intervals = calendar.getAvailability(1L, DAY.plusHours(8), DAY.plusHours(21));
+        assertThat(intervals, hasSize(5));
+        assertInterval(intervals.get(0), 8, 10, AvailabilityStatus.FREE);
+        assertInterval(intervals.get(1), 10, 12, AvailabilityStatus.WAITING);
+        assertInterval(intervals.get(2), 12, 16, AvailabilityStatus.BUSY);
+        assertInterval(intervals.get(3), 16, 20, AvailabilityStatus.FREE);
+        assertInterval(intervals.get(4), 20, 21, AvailabilityStatus.WAITING);
+
+        intervals = calendar.getAvailability(1L, DAY.plusHours(13), DAY.plusHours(15));
+        assertThat(intervals, hasSize(1));
+        assertInterval(intervals.get(0), 13, 15, AvailabilityStatus.BUSY);
+
+        intervals = calendar.getAvailability(1L, DAY.plusHours(22), DAY.plusHours(23));
+        assertThat(intervals, hasSize(1));
+        assertInterval(intervals.get(0), 22, 23, AvailabilityStatus.FREE);
+
+        Mockito.verify(bookingRepository, Mockito.times(1)).findByItem_IdAndStatusInAndEndAfter(eq(1L), anyCollection(),
+                eq(DAY.minusHours(1).minusDays(1)));
+    }
+
+    @Test
+    public void onSaved() {
+        calendar.getAvailability(1L, DAY, DAY.plusDays(1));
+
+        calendar.onSaved(booking(2, 12, 16, BookingStatus.REJECTED));
+        calendar.onSaved(booking(1, 10, 14, BookingStatus.APPROVED));
+        calendar.onSaved(booking(4, 17, 18, BookingStatus.WAITING));
+
+        List<AvailabilityInterval> intervals = calendar.getAvailability(1L, DAY.plusHours(8), DAY.plusHours(19));
+        assertThat(intervals, hasSize(5));
+        assertInterval(intervals.get(0), 8, 10, AvailabilityStatus.FREE);
+        assertInterval(intervals.get(1), 10, 14, AvailabilityStatus.BUSY);
+        assertInterval(intervals.get(2), 14, 17, AvailabilityStatus.FREE);
+        assertInterval(intervals.get(3), 17, 18, AvailabilityStatus.WAITING);
+        assertInterval(intervals.get(4), 18, 19, AvailabilityStatus.FREE);
+    }
+
+    @Test
+    public void pruneEnded() {
+        calendar.getAvailability(1L, DAY, DAY.plusDays(1));
+
+        // Через сутки после конца первых двух бронирований они выпадают из дерева при ближайшем обновлении
+        clock.set(DAY.plusDays(1).plusHours(17));
+        calendar.onSaved(booking(4, 40, 42, BookingStatus.WAITING));
+
+        Mockito.when(bookingRepository.findByItem_IdAndStatusInAndStartBeforeAndEndAfter(eq(1L), anyCollection(),
+                        any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking(2, 12, 16, BookingStatus.APPROVED)));
+        List<AvailabilityInterval> intervals = calendar.getAvailability(1L, DAY.plusHours(12), DAY.plusHours(16));
+        assertThat(intervals, hasSize(1));
+        assertInterval(intervals.get(0), 12, 16, AvailabilityStatus.BUSY);
+        Mockito.verify(bookingRepository, Mockito.times(1)).findByItem_IdAndStatusInAndStartBeforeAndEndAfter(eq(1L),
+                anyCollection(), eq(DAY.plusHours(16)), eq(DAY.plusHours(12)));
+
+        intervals = calendar.getAvailability(1L, DAY.plusHours(40), DAY.plusHours(44));
+        assertThat(intervals, hasSize(2));
+        assertInterval(intervals.get(0), 40, 42, AvailabilityStatus.WAITING);
+        assertInterval(intervals.get(1), 42, 44, AvailabilityStatus.FREE);
+        Mockito.verify(bookingRepository, Mockito.times(1)).findByItem_IdAndStatusInAndEndAfter(eq(1L), anyCollection(),
+                any(LocalDateTime.class));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.atZone(ZoneId.systemDefault()).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
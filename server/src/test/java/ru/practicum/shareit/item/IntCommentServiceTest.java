@@ -167,4 +167,15 @@ public class IntCommentServiceTest {
             )));
         }
     }
+
+    @Test
+    void getItemsComments() {
+        List<Comment> targetComments = service.getItemsComments(sourceItems);
+
+        assertThat(targetComments, hasSize(3));
+        assertThat(targetComments.get(0).getId(), equalTo(sourceComments.get(0).getId()));
+        assertThat(targetComments.get(2).getItem(), equalTo(sourceItems.get(1)));
+
+        assertThat(service.getItemsComments(List.of()), hasSize(0));
+    }
 }
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
@@ -19,6 +20,7 @@ import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.MOCK)
@@ -147,4 +149,30 @@ class IntItemServiceTest {
         assertThat(item.getOwner(), equalTo(item6.getOwner()));
         assertThat(item.getRequest(), equalTo(item6.getRequest()));
     }
+
+    @Test
+    void updateItemFromStaleVersion() {
+        Item item1 = sourceItems.get(0);
+        long version = item1.getVersion();
+
+        service.updateItem(patched(item1, "first patch", version));
+        em.flush();
+        assertThat(item1.getVersion(), equalTo(version + 1));
+
+        // вторая правка собрана по той же версии и не должна затереть первую
+        Item second = patched(item1, "second patch", version);
+        assertThrows(OptimisticLockingFailureException.class, () -> service.updateItem(second));
+        assertThat(item1.getName(), equalTo("first patch"));
+    }
+
+    private static Item patched(Item item, String name, long version) {
+        return Item.builder()
+                .id(item.getId())
+                .name(name)
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner(item.getOwner())
+                .version(version)
+                .build();
+    }
 }
@@ -8,8 +8,10 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -60,8 +62,7 @@ public class JpaItemRepositoryTest {
         Assertions.assertNotNull(em);
     }
 
-    @Test
-    public void findByAvailableTrueAndNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase() {
+    private void persistEntities() {
         for (User user : sourceUsers) {
             em.persist(user);
         }
@@ -80,6 +81,11 @@ public class JpaItemRepositoryTest {
             em.persist(item);
         }
         em.flush();
+    }
+
+    @Test
+    public void findByAvailableTrueAndNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase() {
+        persistEntities();
 
         PageRequest page = PageRequest.of(0, 10);
         List<Item> items = repository.findByAvailableTrueAndNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase("", page);
@@ -94,4 +100,48 @@ public class JpaItemRepositoryTest {
         items = repository.findByAvailableTrueAndNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase("yyyyy", page);
         assertThat(items, hasSize(0));
     }
+
+    @Test
+    public void findAvailableBySubstring() {
+        persistEntities();
+
+        PageRequest page = PageRequest.of(0, 10);
+        List<Item> items = repository.findAvailableBySubstring("aa", page);
+        assertThat(items, hasSize(3));
+        assertThat(items.get(0).getId(), equalTo(sourceItems.get(0).getId()));
+
+        items = repository.findAvailableBySubstring("cCc", page);
+        assertThat(items, hasSize(1));
+
+        items = repository.findAvailableBySubstring("yyyyy", page);
+        assertThat(items, hasSize(0));
+
+        items = repository.findAvailableBySubstring("item", PageRequest.of(1, 2));
+        assertThat(items, hasSize(2));
+        assertThat(items.get(0).getId(), equalTo(sourceItems.get(2).getId()));
+    }
+
+    @Test
+    public void findByRequestInOrderByIdAsc() {
+        persistEntities();
+        List<ItemRequest> requests = List.of(
+                ItemRequest.builder().description("request 1").requestor(sourceUsers.get(2))
+                        .created(LocalDateTime.now()).build(),
+                ItemRequest.builder().description("request 2").requestor(sourceUsers.get(2))
+                        .created(LocalDateTime.now()).build(),
+                ItemRequest.builder().description("request 3").requestor(sourceUsers.get(2))
+                        .created(LocalDateTime.now()).build()
+        );
+        requests.forEach(em::persist);
+        sourceItems.get(1).setRequest(requests.get(0));
+        sourceItems.get(0).setRequest(requests.get(0));
+        sourceItems.get(3).setRequest(requests.get(1));
+        sourceItems.get(4).setRequest(requests.get(2));
+        em.flush();
+
+        List<Item> items = repository.findByRequestInOrderByIdAsc(requests.subList(0, 2));
+        assertThat(items, hasSize(3));
+        assertThat(items.get(0).getId(), equalTo(sourceItems.get(0).getId()));
+        assertThat(items.get(2).getRequest().getId(), equalTo(requests.get(1).getId()));
+    }
 }
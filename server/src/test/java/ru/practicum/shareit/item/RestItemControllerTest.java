@@ -8,7 +8,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import ru.practicum.shareit.booking.model.Booking;
@@ -36,6 +38,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -151,7 +155,9 @@ public class RestItemControllerTest {
 
         when(commentService.getItemComments(any()))
                 .thenReturn(sourceComments);
-        when(bookingService.getItemBookings(any()))
+        when(commentService.getItemsComments(any()))
+                .thenReturn(sourceComments);
+        when(bookingService.getLastAndNextBookings(any()))
                 .thenReturn(sourceBookings);
 
         when(itemService.getItem(1L))
@@ -169,17 +175,23 @@ public class RestItemControllerTest {
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(3)))
-                .andExpect(jsonPath("$[0].id", is(sourceItems.get(0).getId()), Long.class))
-                .andExpect(jsonPath("$[0].name", is(sourceItems.get(0).getName())))
-                .andExpect(jsonPath("$[0].description", is(sourceItems.get(0).getDescription())))
-                .andExpect(jsonPath("$[0].available", is(sourceItems.get(0).getAvailable())))
+                .andExpect(jsonPath("$[0].id", is(sourceItems.get(1).getId()), Long.class))
+                .andExpect(jsonPath("$[0].name", is(sourceItems.get(1).getName())))
+                .andExpect(jsonPath("$[0].description", is(sourceItems.get(1).getDescription())))
+                .andExpect(jsonPath("$[0].available", is(sourceItems.get(1).getAvailable())))
                 .andExpect(jsonPath("$[0].lastBooking", nullValue()))
                 .andExpect(jsonPath("$[0].nextBooking", notNullValue()))
                 .andExpect(jsonPath("$[0].nextBooking.id", is(sourceBookings.get(1).getId()), Long.class))
                 .andExpect(jsonPath("$[0].comments", notNullValue()))
-                .andExpect(jsonPath("$[0].comments", hasSize(3)))
-                .andExpect(jsonPath("$[0].comments[0].id", is(sourceComments.get(0).getId()), Long.class))
-                .andExpect(jsonPath("$[0].requestId", nullValue()));
+                .andExpect(jsonPath("$[0].comments", hasSize(2)))
+                .andExpect(jsonPath("$[0].comments[0].id", is(sourceComments.get(1).getId()), Long.class))
+                .andExpect(jsonPath("$[0].requestId", nullValue()))
+                .andExpect(jsonPath("$[1].id", is(sourceItems.get(0).getId()), Long.class))
+                .andExpect(jsonPath("$[1].nextBooking.id", is(sourceBookings.get(0).getId()), Long.class))
+                .andExpect(jsonPath("$[1].comments", hasSize(1)))
+                .andExpect(jsonPath("$[2].id", is(sourceItems.get(2).getId()), Long.class))
+                .andExpect(jsonPath("$[2].nextBooking", nullValue()))
+                .andExpect(jsonPath("$[2].comments", hasSize(0)));
 
         mvc.perform(get("/items").header("X-Sharer-User-Id", 1)
                         .param("from", "0")
@@ -248,6 +260,31 @@ public class RestItemControllerTest {
                 .andExpect(jsonPath("$.requestId", nullValue()));
     }
 
+    @Test
+    void getItemNotModified() throws Exception {
+        String eTag = mvc.perform(get("/items/1").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Другой пользователь видит вещь без бронирований, поэтому тег у него свой
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 2)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+
+        sourceItems.get(0).setVersion(sourceItems.get(0).getVersion() + 1);
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
     @Test
     void createItem() throws Exception {
         ItemDto itemDto1 = ItemDto.builder()
@@ -359,6 +396,26 @@ public class RestItemControllerTest {
                 .andExpect(status().is(in(List.of(400, 500))));
     }
 
+    @Test
+    void patchItemFromStaleVersion() throws Exception {
+        ItemDto itemDto = ItemDto.builder()
+                .name("test item 1111")
+                .version(3L)
+                .build();
+
+        when(itemService.updateItem(argThat(item -> item.getVersion() == 3L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L));
+
+        mvc.perform(patch("/items/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(itemDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void deleteItem() throws Exception {
         mvc.perform(delete("/items/1").header("X-Sharer-User-Id", 1))
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.error.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.IndexItemSearchStrategy;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.util.InvertedIndex;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class UniIndexItemSearchStrategyTest {
+    private IndexItemSearchStrategy strategy;
+    private final List<Item> items = List.of(
+            Item.builder().id(1L).name("Дрель аккумуляторная").description("Мощная дрель").available(true).build(),
+            Item.builder().id(2L).name("Отвертка").description("Крестовая, для дрели не подходит").available(true).build(),
+            Item.builder().id(3L).name("Дрель ударная").description("Сломана").available(false).build(),
+            Item.builder().id(4L).name("Перфоратор").description("Бурит бетон, не хуже дрели").available(true).build()
+    );
+
+    @BeforeEach
+    void setUp() {
+        ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+        Mockito.when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenReturn(List.of());
+        Mockito.when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(items.stream().filter(Item::getAvailable).collect(Collectors.toList()));
+        Mockito.when(itemRepository.findAllById(any()))
+                .thenAnswer(inv -> {
+                    Collection<Long> ids = inv.getArgument(0);
+                    return items.stream().filter(item -> ids.contains(item.getId())).collect(Collectors.toList());
+                });
+
+        strategy = new IndexItemSearchStrategy(itemRepository);
+        strategy.rebuild();
+    }
+
+    @Test
+    void search() {
+        assertThat(ids(strategy.search("дрел", PageRequest.of(0, 10))), contains(1L, 2L, 4L));
+        assertThat(ids(strategy.search("ДРЕЛЬ акку", PageRequest.of(0, 10))), contains(1L));
+        assertThat(ids(strategy.search("дрел", PageRequest.of(1, 2))), contains(4L));
+        assertThat(strategy.search("сломана", PageRequest.of(0, 10)), empty());
+        assertThat(strategy.search("!!!", PageRequest.of(0, 10)), empty());
+    }
+
+    @Test
+    void searchShortPrefix() {
+        // "не" ищется целым словом и не раскрывается в "нет", "небольшой" и т.п.
+        assertThat(ids(strategy.search("не", PageRequest.of(0, 10))), contains(2L, 4L));
+        assertThat(strategy.search("др", PageRequest.of(0, 10)), empty());
+        assertThat(ids(strategy.search("дре", PageRequest.of(0, 10))), contains(1L, 2L, 4L));
+    }
+
+    @Test
+    void searchBroadPrefix() {
+        for (long id = 100; id < 100 + InvertedIndex.MAX_PREFIX_EXPANSION; id++) {
+            strategy.indexItem(Item.builder().id(id).name("дре" + id).description("серия").available(true).build());
+        }
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> strategy.search("дре", PageRequest.of(0, 10)));
+        Assertions.assertEquals("Слишком общий запрос дре, уточните его", exception.getMessage());
+
+        // Широкий префикс проверяется по словам вещей, найденных по остальным словам запроса, без потери результатов
+        assertThat(ids(strategy.search("дре мощная", PageRequest.of(0, 10))), contains(1L));
+        assertThat(ids(strategy.search("мощ дрел", PageRequest.of(0, 10))), contains(1L));
+        assertThat(strategy.search("дре бетон крест", PageRequest.of(0, 10)), empty());
+    }
+
+    @Test
+    void indexItem() {
+        Item item = items.get(2);
+        item.setAvailable(true);
+        strategy.indexItem(item);
+        assertThat(ids(strategy.search("сломана", PageRequest.of(0, 10))), contains(3L));
+
+        item.setAvailable(false);
+        strategy.indexItem(item);
+        assertThat(strategy.search("сломана", PageRequest.of(0, 10)), empty());
+
+        strategy.removeItem(1L);
+        assertThat(ids(strategy.search("аккумуляторная", PageRequest.of(0, 10))), empty());
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.FullTextItemSearchStrategy;
+import ru.practicum.shareit.item.search.IndexItemSearchStrategy;
+import ru.practicum.shareit.item.search.ItemSearchStrategy;
+import ru.practicum.shareit.item.search.LikeItemSearchStrategy;
+import ru.practicum.shareit.item.search.TrigramItemSearchStrategy;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class UniItemSearchStrategyTest {
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withBean(ItemRepository.class, () -> {
+                ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+                Mockito.when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                        .thenReturn(List.of());
+                return itemRepository;
+            })
+            .withUserConfiguration(LikeItemSearchStrategy.class, FullTextItemSearchStrategy.class,
+                    TrigramItemSearchStrategy.class, IndexItemSearchStrategy.class);
+
+    @Test
+    void likeByDefault() {
+        runner.run(context -> assertThat(context.getBean(ItemSearchStrategy.class),
+                instanceOf(LikeItemSearchStrategy.class)));
+    }
+
+    @Test
+    void selectedByProperty() {
+        runner.withPropertyValues(ItemSearchStrategy.PROPERTY + "=fulltext")
+                .run(context -> assertThat(context.getBean(ItemSearchStrategy.class),
+                        instanceOf(FullTextItemSearchStrategy.class)));
+        runner.withPropertyValues(ItemSearchStrategy.PROPERTY + "=trigram")
+                .run(context -> assertThat(context.getBean(ItemSearchStrategy.class),
+                        instanceOf(TrigramItemSearchStrategy.class)));
+        runner.withPropertyValues(ItemSearchStrategy.PROPERTY + "=index")
+                .run(context -> assertThat(context.getBean(ItemSearchStrategy.class),
+                        instanceOf(IndexItemSearchStrategy.class)));
+    }
+
+    @Test
+    void fullTextSearch() {
+        Item item = Item.builder().id(1L).name("Дрель").description("Ударная").available(true).build();
+        ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+        Mockito.when(itemRepository.findAvailableByFullText(eq("дрели"), any()))
+                .thenReturn(List.of(item));
+
+        ItemSearchStrategy strategy = new FullTextItemSearchStrategy(itemRepository);
+        assertThat(strategy.search("дрели", PageRequest.of(0, 10)), contains(item));
+    }
+}
@@ -95,5 +95,13 @@ public class JpaItemRequestRepositoryTest {
         List<ItemRequest> itemRequests = repository.findByRequestorNotOrderByIdDesc(user2, page);
         assertThat(itemRequests, hasSize(2));
         assertThat(itemRequests.get(0).getDescription(), equalTo("Хочу вещь 3"));
+
+        long beforeId = itemRequests.get(0).getId();
+        itemRequests = repository.findByRequestorNotAndIdBeforeOrderByIdDesc(user2, beforeId, page);
+        assertThat(itemRequests, hasSize(1));
+        assertThat(itemRequests.get(0).getDescription(), equalTo("Хочу вещь 2"));
+
+        itemRequests = repository.findByRequestorNotAndIdBeforeOrderByIdDesc(user2, itemRequests.get(0).getId(), page);
+        assertThat(itemRequests, hasSize(0));
     }
 }
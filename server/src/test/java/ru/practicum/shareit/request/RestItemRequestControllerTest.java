@@ -10,6 +10,8 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -23,6 +25,8 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -36,6 +40,8 @@ public class RestItemRequestControllerTest {
     private UserService userService;
     @MockBean
     private ItemRequestService itemRequestService;
+    @MockBean
+    private ItemService itemService;
 
     @Autowired
     private ObjectMapper mapper;
@@ -106,6 +112,14 @@ public class RestItemRequestControllerTest {
     void getOtherRequests() throws Exception {
         when(itemRequestService.getOtherRequests(any(), anyInt(), anyInt()))
                 .thenReturn(sourceItems);
+        when(itemService.getRequestsItems(sourceItems))
+                .thenReturn(List.of(Item.builder()
+                        .id(2L)
+                        .name("test item 2")
+                        .description("test item 2")
+                        .available(true)
+                        .request(sourceItems.get(0))
+                        .build()));
 
         mvc.perform(get("/requests/all").header("X-Sharer-User-Id", 1))
                 .andDo(MockMvcResultHandlers.print())
@@ -113,7 +127,29 @@ public class RestItemRequestControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(sourceItems.get(0).getId()), Long.class))
                 .andExpect(jsonPath("$[0].description", is(sourceItems.get(0).getDescription())))
-                .andExpect(jsonPath("$[0].requestorId", is(sourceItems.get(0).getRequestor().getId()), Long.class));
+                .andExpect(jsonPath("$[0].requestorId", is(sourceItems.get(0).getRequestor().getId()), Long.class))
+                .andExpect(jsonPath("$[0].items", hasSize(1)))
+                .andExpect(jsonPath("$[0].items[0].id", is(2L), Long.class))
+                .andExpect(jsonPath("$[0].items[0].requestId", is(sourceItems.get(0).getId()), Long.class));
+    }
+
+    @Test
+    void getOtherRequestsBefore() throws Exception {
+        when(itemRequestService.getOtherRequestsBefore(any(), eq(5L), eq(10)))
+                .thenReturn(sourceItems);
+
+        mvc.perform(get("/requests/all?beforeId=5").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(sourceItems.get(0).getId()), Long.class));
+    }
+
+    @Test
+    void getOtherRequestsBeforeWithFrom() throws Exception {
+        mvc.perform(get("/requests/all?beforeId=5&from=10").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Параметры from и beforeId нельзя передавать вместе")));
+        verify(itemRequestService, never()).getOtherRequestsBefore(any(), anyLong(), anyInt());
     }
 
     @Test
@@ -129,4 +165,23 @@ public class RestItemRequestControllerTest {
                 .andExpect(jsonPath("$.description", is(sourceItems.get(userIndex).getDescription())))
                 .andExpect(jsonPath("$.requestorId", is(sourceItems.get(userIndex).getRequestor().getId()), Long.class));
     }
+
+    @Test
+    void getSuggestions() throws Exception {
+        when(itemRequestService.getRequest(1L))
+                .thenReturn(sourceItems.get(0));
+        when(itemRequestService.getSuggestions(eq(sourceItems.get(0)), any(), eq(0), eq(10)))
+                .thenReturn(List.of(Item.builder()
+                        .id(3L)
+                        .name("test item 3")
+                        .description("test item 3")
+                        .available(true)
+                        .build()));
+
+        mvc.perform(get("/requests/1/suggestions").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(3L), Long.class))
+                .andExpect(jsonPath("$[0].name", is("test item 3")));
+    }
 }
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.matching.RequestMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class UniRequestMatcherTest {
+    private RequestMatcher matcher;
+    private final Map<Long, User> users = Map.of(
+            1L, User.builder().id(1).name("test1").email("test1@test.ru").build(),
+            2L, User.builder().id(2).name("test2").email("test2@test.ru").build(),
+            3L, User.builder().id(3).name("test3").email("test3@test.ru").build()
+    );
+    private final List<ItemRequest> requests = List.of(
+            request(1L, "Нужна дрель для ремонта", 1L),
+            request(2L, "Ищу перфоратор", 2L),
+            request(3L, "Палатка туристическая четырехместная", 3L)
+    );
+    private final List<Item> items = List.of(
+            item(10L, "Дрель ударная", "Подходит для ремонта", 2L),
+            item(11L, "Перфоратор", "Бурит бетон", 2L),
+            item(12L, "Палатка", "Двухместная", 1L)
+    );
+
+    private ItemRequest request(long id, String description, long requestorId) {
+        return request(id, description, requestorId, LocalDateTime.now());
+    }
+
+    private ItemRequest request(long id, String description, long requestorId, LocalDateTime created) {
+        return ItemRequest.builder()
+                .id(id)
+                .description(description)
+                .requestor(users.get(requestorId))
+                .created(created)
+                .build();
+    }
+
+    private Item item(long id, String name, String description, long ownerId) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(true)
+                .owner(users.get(ownerId))
+                .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        ItemRequestRepository itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        Mockito.when(itemRequestRepository.findWithRequestorByCreatedAfterAndIdGreaterThan(any(), eq(0L), any()))
+                .thenReturn(requests);
+        ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+        Mockito.when(itemRepository.findAvailableWithOwnerByIdGreaterThan(eq(0L), any()))
+                .thenReturn(items);
+
+        matcher = new RequestMatcher(itemRequestRepository, itemRepository, Duration.ofDays(30), Runnable::run);
+        matcher.rebuild();
+    }
+
+    @Test
+    void rebuild() {
+        assertThat(matcher.getSuggestions(1L), contains(10L));
+        // вещь автора запроса ему не предлагается
+        assertThat(matcher.getSuggestions(2L), empty());
+        // совпало меньше половины слов запроса
+        assertThat(matcher.getSuggestions(3L), empty());
+    }
+
+    @Test
+    void indexItem() {
+        Item item = item(13L, "Дрели", "Мощные", 3L);
+        matcher.indexItem(item);
+        assertThat(matcher.getSuggestions(1L), contains(13L, 10L));
+
+        item.setAvailable(false);
+        matcher.indexItem(item);
+        assertThat(matcher.getSuggestions(1L), contains(10L));
+
+        matcher.removeItem(10L);
+        assertThat(matcher.getSuggestions(1L), empty());
+    }
+
+    @Test
+    void indexRequest() {
+        // новый запрос сразу сопоставляется с уже проиндексированными вещами
+        matcher.indexRequest(request(4L, "Нужен бетон", 1L));
+        assertThat(matcher.getSuggestions(4L), contains(11L));
+
+        Item item = item(13L, "Бетон", "Мешок", 3L);
+        matcher.indexItem(item);
+        assertThat(matcher.getSuggestions(4L), contains(13L, 11L));
+    }
+
+    @Test
+    void expiredRequest() {
+        matcher.indexRequest(request(4L, "Нужен бетон", 1L, LocalDateTime.now().minusDays(31)));
+        assertThat(matcher.getSuggestions(4L), empty());
+    }
+}
@@ -11,6 +11,7 @@ import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.allOf;
@@ -44,7 +45,7 @@ public class IntUserServiceTest {
 
     @Test
     void getUsers() {
-        List<User> targetUsers = service.getUsers();
+        List<User> targetUsers = service.getUsers(0, 10);
 
         assertThat(targetUsers, hasSize(sourceUsers.size()));
         for (User sourceUser : sourceUsers) {
@@ -56,6 +57,25 @@ public class IntUserServiceTest {
         }
     }
 
+    @Test
+    void getUsersAfter() {
+        List<User> targetUsers = service.getUsersAfter(sourceUsers.get(0).getId(), 1);
+        assertThat(targetUsers, hasSize(1));
+        assertThat(targetUsers.get(0).getId(), equalTo(sourceUsers.get(1).getId()));
+
+        targetUsers = service.getUsers(1, 1);
+        assertThat(targetUsers, hasSize(1));
+        assertThat(targetUsers.get(0).getId(), equalTo(sourceUsers.get(1).getId()));
+    }
+
+    @Test
+    void exportUsers() {
+        List<Long> ids = new ArrayList<>();
+        service.exportUsers(user -> ids.add(user.getId()));
+        assertThat(ids, hasSize(sourceUsers.size()));
+        assertThat(ids.get(0), equalTo(sourceUsers.get(0).getId()));
+    }
+
     @Test
     void getUser() {
         User user1 = service.getUser(sourceUsers.get(0).getId());
@@ -97,6 +117,17 @@ public class IntUserServiceTest {
         assertThat(user.getEmail(), equalTo(user3.getEmail()));
     }
 
+    @Test
+    void getUserAfterUpdate() {
+        long id = sourceUsers.get(1).getId();
+        service.getUser(id);
+
+        service.updateUser(User.builder().id(id).name("test22").email("test2@test.ru").build(), id);
+        User user = service.getUser(id);
+
+        assertThat(user.getName(), equalTo("test22"));
+    }
+
     @Test
     void deleteUser() {
         service.deleteUser(sourceUsers.get(2).getId());
@@ -8,26 +8,33 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.ExportTimeout;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
-@Import(UserMapper.class)
+@Import({UserMapper.class, ExportTimeout.class})
 public class RestUserControllerTest {
     @MockBean
     private UserService userService;
@@ -44,7 +51,7 @@ public class RestUserControllerTest {
 
     @Test
     void getUsers() throws Exception {
-        when(userService.getUsers())
+        when(userService.getUsers(0, 100))
                 .thenReturn(sourceUsers);
 
         mvc.perform(get("/users"))
@@ -55,6 +62,38 @@ public class RestUserControllerTest {
                 .andExpect(jsonPath("$[0].email", is(sourceUsers.get(0).getEmail())));
     }
 
+    @Test
+    void getUsersAfter() throws Exception {
+        when(userService.getUsersAfter(1L, 2))
+                .thenReturn(sourceUsers.subList(1, 3));
+
+        mvc.perform(get("/users?afterId=1&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(sourceUsers.get(1).getId()), Long.class));
+    }
+
+    @Test
+    void exportUsers() throws Exception {
+        doAnswer(inv -> {
+            Consumer<User> consumer = inv.getArgument(0);
+            sourceUsers.forEach(consumer);
+            return null;
+        }).when(userService).exportUsers(any());
+
+        MvcResult result = mvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length, equalTo(3));
+        assertThat(mapper.readValue(lines[2], UserDto.class).getEmail(), equalTo("test3@test.ru"));
+    }
+
     @Test
     void getUser() throws Exception {
         int userIndex = 0;
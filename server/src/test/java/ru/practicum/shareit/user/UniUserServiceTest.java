@@ -0,0 +1,80 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+
+public class UniUserServiceTest {
+    private UserRepository userRepository;
+    private ConcurrentMapCacheManager cacheManager;
+    private UserService userService;
+    private User stored;
+
+    @BeforeEach
+    public void createService() {
+        stored = User.builder().id(1).name("test1").email("test1@test.ru").build();
+        userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findById(1L))
+                .thenAnswer(inv -> Optional.of(User.builder()
+                        .id(stored.getId()).name(stored.getName()).email(stored.getEmail()).build()));
+        Mockito.when(userRepository.save(any(User.class)))
+                .thenAnswer(inv -> {
+                    stored = inv.getArgument(0);
+                    return stored;
+                });
+        cacheManager = new ConcurrentMapCacheManager(UserServiceImpl.USERS_CACHE);
+        userService = new UserServiceImpl(userRepository, Mockito.mock(EntityManager.class), cacheManager);
+    }
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void getUserReturnsCopy() {
+        User user1 = userService.getUser(1L);
+        user1.setName("changed");
+
+        User user2 = userService.getUser(1L);
+        assertThat(user2, not(sameInstance(user1)));
+        assertThat(user2.getName(), equalTo("test1"));
+        Mockito.verify(userRepository, Mockito.times(1)).findById(1L);
+    }
+
+    @Test
+    public void getUserAfterUpdate() {
+        TransactionSynchronizationManager.initSynchronization();
+        userService.getUser(1L);
+
+        userService.updateUser(User.builder().id(1).name("test11").email("test1@test.ru").build(), 1L);
+        assertThat(userService.getUser(1L).getName(), equalTo("test11"));
+
+        // Параллельный запрос успел положить в кэш старую копию до коммита обновления
+        cacheManager.getCache(UserServiceImpl.USERS_CACHE)
+                .put(1L, User.builder().id(1).name("test1").email("test1@test.ru").build());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertThat(userService.getUser(1L).getName(), equalTo("test11"));
+    }
+}